@@ -13,12 +13,15 @@ CREATE TABLE ship
     name     VARCHAR(50) NULL,
     planet   VARCHAR(50) NULL,
     shipType VARCHAR(9)  NULL,
-    prodDate date        NULL,
-    isUsed   BIT(1)      NULL,
-    speed    DOUBLE      NULL,
-    crewSize INT(4)      NULL,
-    rating   DOUBLE      NULL,
-    PRIMARY KEY (id)
+    prodDate date        NOT NULL,
+    isUsed   BIT(1)      NOT NULL,
+    speed    DOUBLE      NOT NULL,
+    crewSize INT(4)      NOT NULL,
+    rating   DOUBLE      NOT NULL,
+    version  BIGINT(20)  NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    INDEX ship_prodDate (prodDate),
+    INDEX ship_rating (rating)
 )
     ENGINE = InnoDB
     DEFAULT CHARACTER SET = utf8;
@@ -1,11 +1,14 @@
 package com.space.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.JpaVendorAdapter;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
@@ -21,8 +24,15 @@ import java.util.Properties;
 @EnableTransactionManagement
 @ComponentScan("com.space.service")
 @EnableJpaRepositories(basePackages = "com.space.repository")
+@PropertySource(value = {"classpath:application.properties", "file:${cosmoport.config:cosmoport.properties}"}, ignoreResourceNotFound = true)
 public class AppConfig {
 
+    private final Environment environment;
+
+    public AppConfig(Environment environment) {
+        this.environment = environment;
+    }
+
     @Bean
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
@@ -36,15 +46,41 @@ public class AppConfig {
         return em;
     }
 
-    @Bean
+    @Bean(destroyMethod = "close")
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        dataSource.setUrl("jdbc:mysql://localhost:3306/cosmoport?serverTimezone=UTC");
-        dataSource.setUsername("root");
-        dataSource.setPassword("root");
+        HikariConfig config = poolConfig(environment);
+        config.setDriverClassName(environment.getRequiredProperty("datasource.driver-class-name"));
+        config.setJdbcUrl(environment.getRequiredProperty("datasource.url"));
+        config.setUsername(environment.getRequiredProperty("datasource.username"));
+        config.setPassword(environment.getRequiredProperty("datasource.password"));
+
+        config.addDataSourceProperty("cachePrepStmts", environment.getProperty("datasource.mysql.cache-prep-stmts", "true"));
+        config.addDataSourceProperty("prepStmtCacheSize", environment.getProperty("datasource.mysql.prep-stmt-cache-size", "250"));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", environment.getProperty("datasource.mysql.prep-stmt-cache-sql-limit", "2048"));
+        config.addDataSourceProperty("useServerPrepStmts", environment.getProperty("datasource.mysql.use-server-prep-stmts", "true"));
+        // sends a JDBC batch of inserts as multi-row statements
+        config.addDataSourceProperty("rewriteBatchedStatements", environment.getProperty("datasource.mysql.rewrite-batched-statements", "true"));
+        // without it the driver reads a whole result set into memory and ignores the fetch size
+        config.addDataSourceProperty("useCursorFetch", environment.getProperty("datasource.mysql.use-cursor-fetch", "true"));
+
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Driver independent pool settings, shared with the H2 data source of the tests.
+     */
+    public static HikariConfig poolConfig(Environment environment) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("cosmoport");
+        config.setMaximumPoolSize(environment.getProperty("datasource.pool.maximum-size", Integer.class, 10));
+        config.setMinimumIdle(environment.getProperty("datasource.pool.minimum-idle", Integer.class, 10));
+        config.setConnectionTimeout(environment.getProperty("datasource.pool.connection-timeout-ms", Long.class, 30000L));
+        config.setIdleTimeout(environment.getProperty("datasource.pool.idle-timeout-ms", Long.class, 600000L));
+        config.setMaxLifetime(environment.getProperty("datasource.pool.max-lifetime-ms", Long.class, 1800000L));
+        config.setLeakDetectionThreshold(environment.getProperty("datasource.pool.leak-detection-threshold-ms", Long.class, 0L));
+        config.setRegisterMbeans(environment.getProperty("datasource.pool.register-mbeans", Boolean.class, false));
 
-        return dataSource;
+        return config;
     }
 
     @Bean
@@ -60,9 +96,36 @@ public class AppConfig {
         return new PersistenceExceptionTranslationPostProcessor();
     }
 
-    private Properties additionalProperties() {
+    /**
+     * Hibernate second-level and query cache, shared with the entity manager of the tests. Regions
+     * are bounded and expire as configured in ehcache.xml; Hibernate evicts them on its own writes.
+     */
+    public static Properties cacheProperties(Environment environment) {
         Properties properties = new Properties();
+        boolean enabled = environment.getProperty("hibernate.cache.enabled", Boolean.class, false);
+
+        properties.setProperty("hibernate.cache.use_second_level_cache", String.valueOf(enabled));
+        properties.setProperty("hibernate.cache.use_query_cache", String.valueOf(enabled));
+        if (enabled) {
+            properties.setProperty("hibernate.cache.region.factory_class", "jcache");
+            properties.setProperty("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+            properties.setProperty("hibernate.javax.cache.uri", environment.getProperty("hibernate.cache.config", "ehcache.xml"));
+            properties.setProperty("hibernate.javax.cache.missing_cache_strategy", "fail");
+        }
+        properties.setProperty("hibernate.generate_statistics",
+                environment.getProperty("hibernate.cache.statistics", "false"));
+
+        return properties;
+    }
+
+    private Properties additionalProperties() {
+        Properties properties = cacheProperties(environment);
         properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQL5Dialect");
+        // inserts of IDENTITY ids are never batched by Hibernate; this batches updates and deletes
+        properties.setProperty("hibernate.jdbc.batch_size", environment.getProperty("hibernate.jdbc.batch-size", "50"));
+        properties.setProperty("hibernate.order_inserts", "true");
+        properties.setProperty("hibernate.order_updates", "true");
+        properties.setProperty("hibernate.jdbc.batch_versioned_data", "true");
         properties.setProperty("spring.jpa.show-sql", "true");
 //        properties.setProperty("spring.jpa.properties.hibernate.format__sql", "true");
 //        properties.setProperty("logging.file", "mylog.log");
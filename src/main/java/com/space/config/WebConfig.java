@@ -2,11 +2,17 @@ package com.space.config;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.ViewResolver;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
@@ -15,6 +21,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.view.InternalResourceViewResolver;
 import org.springframework.web.servlet.view.JstlView;
 
+import java.util.Collections;
 import java.util.List;
 
 @Configuration
@@ -22,6 +29,14 @@ import java.util.List;
 @ComponentScan("com.space.controller")
 public class WebConfig implements WebMvcConfigurer {
 
+    /**
+     * Binary ship lists: the same properties as the JSON ones, encoded as Smile. Property names
+     * and short repeated values (planets, ship types) are written once per response and
+     * referenced afterwards.
+     */
+    public static final String SHIP_BIN_VALUE = "application/x-ship-bin";
+
+    public static final MediaType SHIP_BIN = MediaType.valueOf(SHIP_BIN_VALUE);
 
     @Bean
     public ViewResolver internalResourceViewResolver() {
@@ -43,12 +58,44 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addResourceHandler("/resources/**").addResourceLocations("/resources/");
     }
 
+    /**
+     * The mapper of the JSON message converter, shared with the controllers that write
+     * their responses themselves.
+     */
+    @Bean
+    @Primary
+    public ObjectMapper objectMapper() {
+        return withFieldVisibility(new ObjectMapper());
+    }
+
+    /**
+     * The mapper of the {@value #SHIP_BIN_VALUE} converter.
+     */
+    @Bean
+    public ObjectMapper smileMapper() {
+        return withFieldVisibility(new ObjectMapper(smileFactory()));
+    }
+
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
-        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
-        converter.getObjectMapper().setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
-        converter.getObjectMapper().setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
-        converters.add(converter);
+        converters.add(new MappingJackson2HttpMessageConverter(objectMapper()));
+
+        // only chosen for an explicit Accept: application/x-ship-bin, JSON stays the default
+        MappingJackson2SmileHttpMessageConverter smileConverter = new MappingJackson2SmileHttpMessageConverter(smileMapper());
+        smileConverter.setSupportedMediaTypes(Collections.singletonList(SHIP_BIN));
+        converters.add(smileConverter);
+    }
+
+    public static SmileFactory smileFactory() {
+        SmileFactory smileFactory = new SmileFactory();
+        smileFactory.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true);
+        return smileFactory;
+    }
+
+    private static ObjectMapper withFieldVisibility(ObjectMapper objectMapper) {
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        objectMapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        return objectMapper;
     }
 
 
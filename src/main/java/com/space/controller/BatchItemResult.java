@@ -0,0 +1,67 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.space.model.Ship;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Outcome of one item of a batch request: its position in the request, an HTTP status code,
+ * the id of the created ship on success and a reason otherwise.
+ */
+public class BatchItemResult {
+
+    private final int index;
+    private int status;
+    private Long id;
+    private String error;
+
+    @JsonIgnore
+    private final Ship ship;
+
+    BatchItemResult(int index, Ship ship) {
+        this.index = index;
+        this.ship = ship;
+    }
+
+    static BatchItemResult invalid(int index) {
+        BatchItemResult result = new BatchItemResult(index, null);
+        result.status = HttpStatus.BAD_REQUEST.value();
+        result.error = "invalid ship";
+        return result;
+    }
+
+    boolean isValid() {
+        return ship != null;
+    }
+
+    /**
+     * Takes the outcome of the insert of a valid item.
+     *
+     * @param error why the ship was not inserted, {@code null} if it was
+     */
+    void complete(String error) {
+        id = ship.getId();
+        if (id != null) {
+            status = HttpStatus.OK.value();
+        } else {
+            status = HttpStatus.INTERNAL_SERVER_ERROR.value();
+            this.error = error != null ? error : "not inserted";
+        }
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
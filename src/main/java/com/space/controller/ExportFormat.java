@@ -0,0 +1,181 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.space.config.WebConfig;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Formats of {@code GET /rest/ships/export}. A row holds the values of the columns the writer was
+ * opened with, in that order, and is written as soon as it is read; dates are written as epoch
+ * millis like everywhere else in the API.
+ */
+enum ExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        RowWriter open(OutputStream out, JsonFactory jsonFactory, List<String> columns) throws IOException {
+            JsonGenerator generator = jsonFactory.createGenerator(out);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+
+            return new RowWriter() {
+                private boolean empty = true;
+
+                @Override
+                public void write(Object[] row) throws IOException {
+                    generator.writeStartObject();
+                    for (int i = 0; i < row.length; i++) {
+                        generator.writeFieldName(columns.get(i));
+                        writeJson(generator, row[i]);
+                    }
+                    generator.writeEndObject();
+                    empty = false;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    if (!empty) {
+                        generator.writeRaw('\n');
+                    }
+                    generator.close();
+                }
+            };
+        }
+    },
+
+    SMILE(WebConfig.SHIP_BIN_VALUE, "sml") {
+        // a Smile stream of one object per ship, the binary form of NDJSON
+        @Override
+        RowWriter open(OutputStream out, JsonFactory jsonFactory, List<String> columns) throws IOException {
+            JsonGenerator generator = SMILE_FACTORY.createGenerator(out);
+
+            return new RowWriter() {
+                @Override
+                public void write(Object[] row) throws IOException {
+                    generator.writeStartObject();
+                    for (int i = 0; i < row.length; i++) {
+                        generator.writeFieldName(columns.get(i));
+                        writeJson(generator, row[i]);
+                    }
+                    generator.writeEndObject();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    generator.close();
+                }
+            };
+        }
+    },
+
+    CSV("text/csv", "csv") {
+        @Override
+        RowWriter open(OutputStream out, JsonFactory jsonFactory, List<String> columns) throws IOException {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writer.write(String.join(",", columns));
+            writer.write(CSV_LINE_END);
+
+            return new RowWriter() {
+                @Override
+                public void write(Object[] row) throws IOException {
+                    for (int i = 0; i < row.length; i++) {
+                        if (i > 0) {
+                            writer.write(',');
+                        }
+                        writeCsv(writer, row[i]);
+                    }
+                    writer.write(CSV_LINE_END);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    writer.close();
+                }
+            };
+        }
+    };
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private static final SmileFactory SMILE_FACTORY = WebConfig.smileFactory();
+
+    private static final String CSV_LINE_END = "\r\n";
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    String getContentType() {
+        return contentType;
+    }
+
+    String getExtension() {
+        return extension;
+    }
+
+    /**
+     * The format named {@code name} in any case, or {@code null} if there is none.
+     */
+    static ExportFormat of(String name) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    abstract RowWriter open(OutputStream out, JsonFactory jsonFactory, List<String> columns) throws IOException;
+
+    interface RowWriter extends Closeable {
+
+        void write(Object[] row) throws IOException;
+    }
+
+    private static void writeJson(JsonGenerator generator, Object value) throws IOException {
+        value = ShipColumns.value(value);
+
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof Double) {
+            generator.writeNumber((Double) value);
+        } else if (value instanceof Number) {
+            generator.writeNumber(((Number) value).longValue());
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    private static void writeCsv(Writer writer, Object value) throws IOException {
+        value = ShipColumns.value(value);
+
+        if (value == null) {
+            return;
+        }
+
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+        } else {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
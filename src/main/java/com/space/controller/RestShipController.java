@@ -1,17 +1,44 @@
 package com.space.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.WebConfig;
 import com.space.exceptions.BadRequest;
 import com.space.exceptions.NotFoundException;
+import com.space.exceptions.PreconditionFailed;
+import com.space.exceptions.ServiceUnavailable;
 import com.space.model.Ship;
+import com.space.model.ShipDates;
+import com.space.model.ShipFields;
+import com.space.model.ShipFilter;
 import com.space.model.ShipType;
+import com.space.service.ShipCursor;
+import com.space.service.ShipPatch;
 import com.space.service.ShipService;
+import com.space.service.importer.ImportFormat;
+import com.space.service.importer.ImportReport;
+import com.space.service.importer.ShipImporter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Calendar;
-import java.util.Collection;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/rest/ships")
@@ -21,165 +48,323 @@ public class RestShipController {
 
     private static final int DEFAULT_PAGE_SIZE = 3;
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ShipService shipService;
 
-    public RestShipController(ShipService shipService) {
+    private final ShipImporter shipImporter;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectMapper smileMapper;
+
+    public RestShipController(ShipService shipService, ShipImporter shipImporter, ObjectMapper objectMapper,
+                              @Qualifier("smileMapper") ObjectMapper smileMapper) {
         this.shipService = shipService;
+        this.shipImporter = shipImporter;
+        this.objectMapper = objectMapper;
+        this.smileMapper = smileMapper;
     }
 
+    /**
+     * With {@code fields}, only the named attributes of each ship are read and written.
+     */
     @GetMapping
-    public Collection<Ship> listByFilterWithSortingAndPagination(
-            @RequestParam(value = "name", required = false) String name,
-            @RequestParam(value = "planet", required = false) String planet,
-            @RequestParam(value = "shipType", required = false) ShipType shipType,
-            @RequestParam(value = "after", required = false) Long after,
-            @RequestParam(value = "before", required = false) Long before,
-            @RequestParam(value = "isUsed", required = false) Boolean isUsed,
-            @RequestParam(value = "minSpeed", required = false) Double minSpeed,
-            @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
-            @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
-            @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
-            @RequestParam(value = "minRating", required = false) Double minRating,
-            @RequestParam(value = "maxRating", required = false) Double maxRating,
+    public List<?> listByFilterWithSortingAndPagination(
+            @ModelAttribute ShipFilter filter,
 
             @RequestParam(value = "pageNumber", required = false) Integer pageNumber,
             @RequestParam(value = "pageSize", required = false) Integer pageSize,
 
-            @RequestParam(value = "order", required = false) ShipOrder order
+            @RequestParam(value = "order", required = false) ShipOrder order,
+            @RequestParam(value = "fields", required = false) String fields,
+
+            HttpServletResponse response
     ){
+        pageNumber = pageNumber == null ? DEFAULT_PAGE_NUMBER : pageNumber;
+        pageSize = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
 
-        name = toValidString(name);
+        // JSON or Smile by Accept, so shared caches must keep them apart
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
 
-        planet = toValidString(planet);
+        if (fields != null) {
+            List<String> columns = ShipColumns.of(fields);
+            List<Map<String, Object>> ships = new ArrayList<>();
+            for (Object[] row : shipService.selectShipRows(filter, pageNumber, pageSize, order, columns)) {
+                ships.add(ShipColumns.toMap(columns, row));
+            }
+            return ships;
+        }
+
+        return shipService.selectShips(filter, pageNumber, pageSize, order);
+    }
+
+    /**
+     * Streaming mode, chosen by {@code stream=true}: the same list, written ship by ship while the
+     * rows are read, so memory does not depend on the page size. Without {@code pageSize} every
+     * matching ship is written. In Smile for clients accepting {@value WebConfig#SHIP_BIN_VALUE};
+     * with {@code fields}, only the named attributes are read and written.
+     */
+    @GetMapping(params = {"stream=true", "!cursor"})
+    public void streamByFilterWithSorting(
+            @ModelAttribute ShipFilter filter,
 
-        boolean isNew;
-        if(isUsed == null){
-            isUsed = true;
-            isNew = true;
-        } else {
-            isNew = !isUsed;
+            @RequestParam(value = "pageNumber", required = false) Integer pageNumber,
+            @RequestParam(value = "pageSize", required = false) Integer pageSize,
+
+            @RequestParam(value = "order", required = false) ShipOrder order,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+
+            HttpServletResponse response
+    ) throws IOException {
+        List<String> columns = fields == null ? null : ShipColumns.of(fields);
+        boolean binary = acceptsShipBin(accept);
+        response.setContentType(binary ? WebConfig.SHIP_BIN_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (!binary) {
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
         }
 
-        pageNumber = pageNumber == null ? DEFAULT_PAGE_NUMBER : pageNumber;
+        ObjectMapper mapper = binary ? smileMapper : objectMapper;
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            if (columns == null) {
+                shipService.forEachShip(filter, pageNumber, pageSize, order, ship -> write(generator, ship));
+            } else {
+                shipService.forEachShipRow(filter, pageNumber, pageSize, order, columns,
+                        row -> write(generator, ShipColumns.toMap(columns, row)));
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Keyset pagination mode, chosen by passing {@code cursor} (empty for the first page).
+     * The token for the next page comes back in the {@value #NEXT_CURSOR_HEADER} header
+     * and is absent on the last page.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<List<Ship>> listByFilterWithSortingAfterCursor(
+            @ModelAttribute ShipFilter filter,
+
+            @RequestParam(value = "cursor") String cursor,
+            @RequestParam(value = "pageSize", required = false) Integer pageSize,
+
+            @RequestParam(value = "order", required = false) ShipOrder order
+    ){
         pageSize = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
+        order = order == null ? ShipOrder.ID : order;
+
+        ShipCursor from;
+        try {
+            from = cursor.isEmpty() ? null : ShipCursor.decode(cursor, order);
+        } catch (IllegalArgumentException ex){
+            throw new BadRequest();
+        }
 
-        return shipService.selectShips(
-                name, planet,
-                shipType,
-                after, before,
-                isUsed, isNew,
-                minSpeed, maxSpeed,
-                minCrewSize, maxCrewSize,
-                minRating, maxRating,
+        List<Ship> ships = shipService.selectShipsAfter(filter, from, pageSize, order);
 
-                pageNumber, pageSize,
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (!ships.isEmpty() && ships.size() == pageSize) {
+            headers.set(NEXT_CURSOR_HEADER, ShipCursor.of(order, ships.get(ships.size() - 1)).encode());
+        }
 
-                order
-        );
+        return new ResponseEntity<>(ships, headers, HttpStatus.OK);
     }
 
     @PostMapping
     public ResponseEntity<Ship> create(
             @RequestBody Map<String, String> requestShip
     ){
-
-        String name = requestShip.get("name");
-        String planet = requestShip.get("planet");
-        String shipType = requestShip.get("shipType");
-        String prodDate = requestShip.get("prodDate");
-        String speed = requestShip.get("speed");
-        String crewSize = requestShip.get("crewSize");
-
-        if(isValidParams(name, planet, shipType, prodDate, speed, crewSize)){ throw new BadRequest(); }
+        Ship currentShip = toNewShip(requestShip);
 
         try {
-            boolean isUsed = false;
+            shipService.saveShip(currentShip);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            throw new BadRequest();
+        }
 
-            if(requestShip.get("isUsed") != null){
-                isUsed = Boolean.parseBoolean(requestShip.get("isUsed"));
+        return ResponseEntity.ok().eTag(eTag(currentShip)).body(currentShip);
+    }
+
+    /**
+     * Creates every valid ship of the array and reports on each item in request order: 400 for an
+     * item failing the same checks as {@link #create}, 500 for one whose chunk could not be inserted.
+     */
+    @PostMapping("/batch")
+    public List<BatchItemResult> createBatch(
+            @RequestBody List<Map<String, String>> requestShips
+    ){
+        List<BatchItemResult> results = new ArrayList<>(requestShips.size());
+        List<Ship> ships = new ArrayList<>(requestShips.size());
+
+        for (Map<String, String> requestShip : requestShips) {
+            try {
+                Ship ship = toNewShip(requestShip);
+                ships.add(ship);
+                results.add(new BatchItemResult(results.size(), ship));
+            } catch (BadRequest e) {
+                results.add(BatchItemResult.invalid(results.size()));
             }
+        }
 
-            long max = shipService.findAll().stream()
-                    .map(ship -> ship.getId())
-                    .max(Long::compareTo)
-                    .orElse(0L);
-            long id = max + 1;
-
-            Calendar productionDate = Calendar.getInstance();
-            productionDate.setTimeInMillis(Long.parseLong(prodDate));
-
-            Ship currentShip = new Ship(
-                    id,
-                    name,
-                    planet,
-                    shipType,
-                    productionDate.getTime(),
-                    isUsed,
-                    Double.parseDouble(speed),
-                    Integer.parseInt(crewSize)
-            );
+        List<String> errors = shipService.saveShips(ships);
 
-            shipService.saveShip(currentShip);
+        int inserted = 0;
+        for (BatchItemResult result : results) {
+            if (result.isValid()) {
+                result.complete(errors.get(inserted++));
+            }
+        }
+        return results;
+    }
 
-            return new ResponseEntity<>(currentShip, HttpStatus.OK);
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new BadRequest();
+    /**
+     * Imports a file of ships in the export formats, read from the request body as it arrives.
+     * Invalid lines are skipped and listed with their line numbers in the report. 503 while
+     * {@code ship.import.max-concurrent} imports are running.
+     */
+    @PostMapping("/import")
+    public ImportReport importShips(
+            @RequestParam(value = "format", required = false, defaultValue = "ndjson") String format,
+            HttpServletRequest request
+    ) throws IOException {
+        ImportFormat importFormat = ImportFormat.of(format);
+        if (importFormat == null) { throw new BadRequest(); }
+
+        try {
+            return shipImporter.importShips(request.getInputStream(), importFormat);
+        } catch (RejectedExecutionException ex) {
+            throw new ServiceUnavailable();
         }
     }
 
     @GetMapping("/count")
     public int count(
-            @RequestParam(value = "name", required = false) String name,
-            @RequestParam(value = "planet", required = false) String planet,
-            @RequestParam(value = "shipType", required = false) ShipType shipType,
-            @RequestParam(value = "after", required = false) Long after,
-            @RequestParam(value = "before", required = false) Long before,
-            @RequestParam(value = "isUsed", required = false) Boolean isUsed,
-            @RequestParam(value = "minSpeed", required = false) Double minSpeed,
-            @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
-            @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
-            @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
-            @RequestParam(value = "minRating", required = false) Double minRating,
-            @RequestParam(value = "maxRating", required = false) Double maxRating,
+            @ModelAttribute ShipFilter filter,
 
             @RequestParam(value = "order", required = false) ShipOrder order
     ){
-        name = toValidString(name);
+        return (int) shipService.countShips(filter);
+    }
 
-        planet = toValidString(planet);
+    /**
+     * Deletes every ship matching the same filter parameters as the list. Without any parameter the
+     * request is rejected, so a lost query string cannot empty the table; {@code all=true} deletes
+     * every ship.
+     *
+     * @return the number of deleted ships
+     */
+    @DeleteMapping
+    public int deleteByFilter(
+            @ModelAttribute ShipFilter filter,
+
+            @RequestParam(value = "all", required = false, defaultValue = "false") boolean all
+    ){
+        if (filter.isEmpty() && !all) { throw new BadRequest(); }
 
-        boolean isNew;
-        if(isUsed == null){
-            isUsed = true;
-            isNew = true;
-        } else {
-            isNew = !isUsed;
-        }
+        return shipService.deleteShips(filter);
+    }
+
+    /**
+     * Applies the attributes of the body, checked like an update by id, to every ship matching the
+     * same filter parameters as the list. Like the delete, it is rejected without any parameter
+     * unless {@code all=true} is given.
+     *
+     * @return the number of patched ships
+     */
+    @PatchMapping
+    public int patchByFilter(
+            @ModelAttribute ShipFilter filter,
+
+            @RequestParam(value = "all", required = false, defaultValue = "false") boolean all,
+            @RequestBody Map<String, String> requestShip
+    ){
+        if (filter.isEmpty() && !all) { throw new BadRequest(); }
 
-        Integer pageNumber = 0;
+        ShipPatch patch;
+        try {
+            Ship checked = new Ship("patch", "patch", ShipType.MERCHANT.name(),
+                    LocalDate.of(Ship.ProdDate.MAX, 1, 1), false, Ship.Speed.MAX, Ship.CrewSize.MIN);
+            applyChanges(checked, requestShip);
+            // like an update by id, a null value leaves the attribute alone; the checked ship holds
+            // placeholders for the attributes that are not given
+            List<String> attributes = new ArrayList<>();
+            requestShip.forEach((attribute, value) -> {
+                if (value != null) {
+                    attributes.add(attribute);
+                }
+            });
+            patch = ShipPatch.of(checked, attributes);
+        } catch (RuntimeException ex){
+            throw new BadRequest();
+        }
 
-        Integer pageSize = 999999;
+        if (patch.isEmpty()) { throw new BadRequest(); }
 
-        Collection<Ship> ships = shipService.selectShips(
-                name, planet,
-                shipType,
-                after, before,
-                isUsed, isNew,
-                minSpeed, maxSpeed,
-                minCrewSize, maxCrewSize,
-                minRating, maxRating,
+        return shipService.patchShips(filter, patch);
+    }
 
-                pageNumber, pageSize,
+    /**
+     * Every matching ship as newline-delimited JSON, CSV or, by default for clients accepting
+     * {@value WebConfig#SHIP_BIN_VALUE}, a Smile stream, written row by row while the rows are read.
+     * Only the columns are read, all of them or those named in {@code fields}; no ships are built.
+     * Gzipped when the client accepts it.
+     */
+    @GetMapping("/export")
+    public void export(
+            @ModelAttribute ShipFilter filter,
+
+            @RequestParam(value = "order", required = false) ShipOrder order,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+
+            HttpServletResponse response
+    ) throws IOException {
+        ExportFormat exportFormat = format != null ? ExportFormat.of(format)
+                : acceptsShipBin(accept) ? ExportFormat.SMILE : ExportFormat.NDJSON;
+        if (exportFormat == null) { throw new BadRequest(); }
+        List<String> columns = ShipColumns.of(fields);
+
+        response.setContentType(exportFormat.getContentType());
+        if (exportFormat != ExportFormat.SMILE) {
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"ships." + exportFormat.getExtension() + "\"");
 
-                order
-        );
+        // shared caches must not hand the gzipped body to a client that did not ask for it
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (format == null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        OutputStream out = response.getOutputStream();
+        if (acceptsGzip(acceptEncoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            out = new GZIPOutputStream(out, ExportFormat.BUFFER_SIZE);
+        }
 
-        return ships.size();
+        try (ExportFormat.RowWriter writer = exportFormat.open(out, objectMapper.getFactory(), columns)) {
+            shipService.forEachShipRow(filter, null, null, order, columns, row -> {
+                try {
+                    writer.write(row);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
     }
 
+    /**
+     * The ship, with its version as the ETag; passing it back in {@code If-Match} makes an update
+     * fail with 412 if someone else changed the ship in between.
+     */
     @GetMapping("/{id}")
-    public Ship getShipById(@PathVariable String id){
+    public ResponseEntity<Ship> getShipById(@PathVariable String id){
         try {
 
             long ID = Long.parseLong(id);
@@ -190,7 +375,7 @@ public class RestShipController {
 
             if(searchedShip == null){ throw new NotFoundException(); }
 
-            return searchedShip;
+            return ResponseEntity.ok().eTag(eTag(searchedShip)).varyBy(HttpHeaders.ACCEPT).body(searchedShip);
 
         } catch (NumberFormatException ex){
             throw new BadRequest();
@@ -200,6 +385,7 @@ public class RestShipController {
     @PostMapping("/{id}")
     public ResponseEntity<Ship> updateShipById(
             @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody Map<String, String> requestShip
     ){
         try {
@@ -210,55 +396,21 @@ public class RestShipController {
                 throw new BadRequest();
             }
 
-            Ship savedShip = shipService.getShipById(ID);
+            // one transaction: the ship is read, changed and written back with only the changed columns,
+            // on the condition that its version is still the one that was read
+            Ship savedShip = shipService.updateShip(ID, expectedVersion(ifMatch), ship -> applyChanges(ship, requestShip));
 
             if (savedShip == null) {
                 throw new NotFoundException();
             }
 
-            if(requestShip.get("name") != null && requestShip.get("name").isEmpty()){
-                throw new BadRequest();
-            } else if (requestShip.get("name") != null) {
-                savedShip.setName(requestShip.get("name"));
-            }
-
-            if(requestShip.get("planet") != null){
-                savedShip.setPlanet(requestShip.get("planet"));
-            }
-
-            if(requestShip.get("shipType") != null) {
-                savedShip.setShipType(requestShip.get("shipType"));
-            }
-
-            if(requestShip.get("prodDate") != null) {
-                long prodDate = Long.parseLong(requestShip.get("prodDate"));
-                Calendar calendar = Calendar.getInstance();
-                calendar.setTimeInMillis(prodDate);
-                savedShip.setProdDate(calendar.getTime());
-            }
-
-            if(requestShip.get("isUsed") != null) {
-                Boolean isUsed = Boolean.parseBoolean(requestShip.get("isUsed"));
-                savedShip.setIsUsed(isUsed);
-            }
-
-            if(requestShip.get("speed") != null) {
-                double speed = Double.parseDouble(requestShip.get("speed"));
-                savedShip.setSpeed(speed);
-            }
-
-            if(requestShip.get("crewSize") != null) {
-                int crewSize = Integer.parseInt(requestShip.get("crewSize"));
-                savedShip.setCrewSize(crewSize);
-            }
-
-            shipService.saveShip(savedShip);
-
-            return new ResponseEntity<>(savedShip, HttpStatus.OK);
+            return ResponseEntity.ok().eTag(eTag(savedShip)).body(savedShip);
 
         } catch (NotFoundException nfe){
             nfe.printStackTrace();
             throw new NotFoundException();
+        } catch (PreconditionFailed | OptimisticLockingFailureException ex){
+            throw new PreconditionFailed();
         } catch (RuntimeException ex){
             ex.printStackTrace();
             throw new BadRequest();
@@ -272,29 +424,142 @@ public class RestShipController {
 
             if(ID == 0) { throw new BadRequest(); }
 
-            Ship searchedShip = shipService.getShipById(ID);
+            if(!shipService.deleteShipById(ID)){ throw new NotFoundException(); }
 
-            if(searchedShip == null){ throw new NotFoundException(); }
+        } catch (NumberFormatException ex){
+            throw new BadRequest();
+        }
+    }
+
+    private static void write(JsonGenerator generator, Object ship) {
+        try {
+            generator.writeObject(ship);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
 
-            shipService.deleteShipById(ID);
+    // gzip unless its weight, or failing that the weight of "*", is zero
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        Double gzip = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            double weight = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        weight = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException ex) {
+                        weight = 0;
+                    }
+                }
+            }
+
+            if (name.equalsIgnoreCase("gzip")) {
+                gzip = weight;
+            } else if (name.equals("*")) {
+                any = weight;
+            }
+        }
+        return (gzip != null ? gzip : any != null ? any : 0) > 0;
+    }
 
+    // Smile when the client weighs it above 0 and no lower than application/json; a malformed header counts as none
+    private static boolean acceptsShipBin(String accept) {
+        if (accept == null) {
+            return false;
+        }
+
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException ex) {
+            return false;
+        }
+
+        double shipBin = 0;
+        double json = 0;
+        for (MediaType mediaType : mediaTypes) {
+            if (WebConfig.SHIP_BIN.equalsTypeAndSubtype(mediaType)) {
+                shipBin = Math.max(shipBin, mediaType.getQualityValue());
+            } else if (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(mediaType)) {
+                json = Math.max(json, mediaType.getQualityValue());
+            }
+        }
+        return shipBin > 0 && shipBin >= json;
+    }
+
+    private static String eTag(Ship ship) {
+        return "\"" + ship.getVersion() + "\"";
+    }
+
+    // null when any version is accepted; a tag that was not issued by eTag never matches
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailed();
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
         } catch (NumberFormatException ex){
-            throw new BadRequest();
+            throw new PreconditionFailed();
         }
     }
 
-    private boolean isValidParams(String name, String planet, String shipType, String prodDate, String speed, String crewSize) {
-        return name == null || name.isEmpty() || name.length() > 50 ||
-                planet == null || planet.isEmpty() || planet.length() > 50 ||
-                shipType == null ||
-                prodDate == null ||
-                speed == null ||
-                crewSize == null;
+    // validates a create request; every failure is a BadRequest
+    private Ship toNewShip(Map<String, String> requestShip) {
+        try {
+            return ShipFields.toNewShip(requestShip);
+        } catch (RuntimeException e) {
+            throw new BadRequest();
+        }
     }
 
-    private String toValidString(@RequestParam(value = "name", required = false) String name) {
-        name = name != null ? name.trim() : "";
-        return name;
+    private void applyChanges(Ship savedShip, Map<String, String> requestShip) {
+        if(requestShip.get("name") != null && requestShip.get("name").isEmpty()){
+            throw new BadRequest();
+        } else if (requestShip.get("name") != null) {
+            savedShip.setName(requestShip.get("name"));
+        }
+
+        if(requestShip.get("planet") != null){
+            savedShip.setPlanet(requestShip.get("planet"));
+        }
+
+        if(requestShip.get("shipType") != null) {
+            savedShip.setShipType(requestShip.get("shipType"));
+        }
+
+        if(requestShip.get("prodDate") != null) {
+            long prodDate = Long.parseLong(requestShip.get("prodDate"));
+            savedShip.setProdDate(ShipDates.fromEpochMilli(prodDate));
+        }
+
+        if(requestShip.get("isUsed") != null) {
+            boolean isUsed = Boolean.parseBoolean(requestShip.get("isUsed"));
+            savedShip.setIsUsed(isUsed);
+        }
+
+        if(requestShip.get("speed") != null) {
+            double speed = Double.parseDouble(requestShip.get("speed"));
+            savedShip.setSpeed(speed);
+        }
+
+        if(requestShip.get("crewSize") != null) {
+            int crewSize = Integer.parseInt(requestShip.get("crewSize"));
+            savedShip.setCrewSize(crewSize);
+        }
     }
 
 }
@@ -0,0 +1,72 @@
+package com.space.controller;
+
+import com.space.exceptions.BadRequest;
+import com.space.model.ShipDates;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The attributes of a ship as columns of rows read without building ships: all of them, as in
+ * the export, or the sparse fieldset named by a {@code fields} parameter.
+ */
+final class ShipColumns {
+
+    static final List<String> ALL = Collections.unmodifiableList(Arrays.asList(
+            "id", "name", "planet", "shipType", "prodDate", "isUsed", "speed", "crewSize", "rating"));
+
+    private ShipColumns() { }
+
+    /**
+     * The columns named in the comma separated {@code fields}, in {@link #ALL} order;
+     * all of them when {@code fields} is {@code null}.
+     *
+     * @throws BadRequest if a name is not a column or none is given
+     */
+    static List<String> of(String fields) {
+        if (fields == null) {
+            return ALL;
+        }
+
+        List<String> names = Arrays.asList(fields.split(","));
+        List<String> columns = new ArrayList<>();
+        for (String column : ALL) {
+            if (names.contains(column)) {
+                columns.add(column);
+            }
+        }
+
+        for (String name : names) {
+            if (!ALL.contains(name)) {
+                throw new BadRequest();
+            }
+        }
+        if (columns.isEmpty()) {
+            throw new BadRequest();
+        }
+        return columns;
+    }
+
+    /**
+     * A row as the JSON object of a ship with only these columns.
+     */
+    static Map<String, Object> toMap(List<String> columns, Object[] row) {
+        Map<String, Object> ship = new LinkedHashMap<>();
+        for (int i = 0; i < row.length; i++) {
+            ship.put(columns.get(i), value(row[i]));
+        }
+        return ship;
+    }
+
+    /**
+     * A column value as the API writes it: dates are epoch millis, like those of a whole ship.
+     */
+    static Object value(Object value) {
+        return value instanceof LocalDate ? ShipDates.toEpochMilli((LocalDate) value) : value;
+    }
+}
@@ -0,0 +1,23 @@
+package com.space.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Writes a production date as epoch millis, the format clients and the tests expect.
+ */
+public class ProdDateSerializer extends StdSerializer<LocalDate> {
+
+    public ProdDateSerializer() {
+        super(LocalDate.class);
+    }
+
+    @Override
+    public void serialize(LocalDate value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeNumber(ShipDates.toEpochMilli(value));
+    }
+}
@@ -1,17 +1,26 @@
 package com.space.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.space.model.Exceptions.NotRealCrewSize;
 import com.space.model.Exceptions.NotRealMaxSpeedException;
 import com.space.model.Exceptions.NotRealProdDateException;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.util.*;
 import javax.persistence.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
 @Table(name = "ship")
 @NamedQuery(name = "Ship.findAllCustom", query = "select s from Ship s")
 public class Ship implements Serializable {
@@ -34,26 +43,36 @@ public class Ship implements Serializable {
     @Column(name = "shipType")
     private String shipType;
 
-    @Temporal(TemporalType.DATE)
     @Column(name = "prodDate")
-    private Date prodDate;
+    @JsonSerialize(using = ProdDateSerializer.class)
+    private LocalDate prodDate;
 
     @Column(name = "isUsed")
-    private Boolean isUsed;
+    private boolean isUsed;
 
     @Column(name = "speed")
-    private Double speed;
+    private double speed;
 
     @Column(name = "crewSize")
-    private Integer crewSize;
+    private int crewSize;
 
     @Column(name = "rating")
-    private Double rating;
+    private double rating;
+
+    // sent as the ETag of the ship rather than in its body
+    @Version
+    @Column(name = "version", nullable = false)
+    @JsonIgnore
+    private long version;
 
     public Ship() { }
 
-    public Ship(long id, String name, String planet, String shipType, Date prodDate, Boolean isUsed, double speed, int crewSize) {
+    public Ship(long id, String name, String planet, String shipType, LocalDate prodDate, boolean isUsed, double speed, int crewSize) {
+        this(name, planet, shipType, prodDate, isUsed, speed, crewSize);
         setId(id);
+    }
+
+    public Ship(String name, String planet, String shipType, LocalDate prodDate, boolean isUsed, double speed, int crewSize) {
         setName(name);
         setPlanet(planet);
         setShipType(shipType);
@@ -95,13 +114,13 @@ public class Ship implements Serializable {
     this.planet = planet;
     }
 
-    public Date getProdDate() {
+    public LocalDate getProdDate() {
     return prodDate;
     }
 
-    public void setProdDate(Date prodDate) {
+    public void setProdDate(LocalDate prodDate) {
 
-    int year = getYear(prodDate);
+    int year = prodDate.getYear();
 
     if (ProdDate.MIN <= year && year <= ProdDate.MAX) {
       this.prodDate = prodDate;
@@ -111,20 +130,20 @@ public class Ship implements Serializable {
     }
     }
 
-    public Boolean isUsed() {
+    public boolean isUsed() {
     return isUsed;
     }
 
-    public void setIsUsed(Boolean used) {
+    public void setIsUsed(boolean used) {
     this.isUsed = used;
     setRating();
     }
 
-    public Double getSpeed() {
+    public double getSpeed() {
     return speed;
     }
 
-    public void setSpeed(Double speed) {
+    public void setSpeed(double speed) {
 
     speed = round(speed, 2);
 
@@ -136,11 +155,11 @@ public class Ship implements Serializable {
     }
     }
 
-    private Integer getCrewSize() {
+    public int getCrewSize() {
     return crewSize;
     }
 
-    public void setCrewSize(Integer crewSize) {
+    public void setCrewSize(int crewSize) {
 
     if (CrewSize.MIN <= crewSize && crewSize <= CrewSize.MAX) {
       this.crewSize = crewSize;
@@ -153,46 +172,65 @@ public class Ship implements Serializable {
     return new CrewSize(getCrewSize());
     }
 
-    public Double getRating() {
-    setRating();
+    public double getRating() {
     return rating;
     }
 
-    public void setRating() {
+    public long getVersion() {
+    return version;
+    }
+
+    // rating is derived from speed, isUsed and prodDate: it is stored with the ship and
+    // recomputed only by their setters
+    private void setRating() {
 
-    if (
-            getSpeed() == null ||
-            isUsed() == null ||
-            prodDate == null
-    ) {
+    if (prodDate == null) {
       return;
     }
 
     double koefficientOfUsed = isUsed() ? USED : NEW;
     int currentYear = ProdDate.MAX;
-    int prodYear = getYear(prodDate);
-
-    Double computeRating = null;
-    try {
-      computeRating = (80 * getSpeed() * koefficientOfUsed)/(currentYear - prodYear + 1);
-      this.rating = round(computeRating, 3);
-    } catch (ArithmeticException e) {
-      double result = (currentYear - prodYear + 1);
-      System.out.println("нельзя делить на ноль");
-      System.out.println("currentYear - prodYear + 1 = " + result );
-      e.printStackTrace();
-    }
-    }
-
-    private double round(Double decimalNumber, int numberDecimals) {
-      return BigDecimal.valueOf(decimalNumber).round(new MathContext(numberDecimals, RoundingMode.HALF_EVEN)).doubleValue();
-    }
-
-    private int getYear(Date prodDate) {
-        Calendar prodCalendar = Calendar.getInstance();
-        prodCalendar.setTime(prodDate);
+    int prodYear = prodDate.getYear();
+
+    this.rating = round((80 * getSpeed() * koefficientOfUsed)/(currentYear - prodYear + 1), 3);
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // far above the error of one multiplication, far below the distance to a rounding tie
+    private static final double TIE_MARGIN = 1e-6;
+
+    /**
+     * Rounds to {@code significantDigits} significant digits, HALF_EVEN, exactly like
+     * {@code BigDecimal.valueOf(value).round(new MathContext(significantDigits, HALF_EVEN)).doubleValue()}.
+     * The value is scaled by a power of ten and rounded in double arithmetic; only values that come
+     * too close to a tie or to a power of ten for that to be exact take the BigDecimal path.
+     */
+    static double round(double value, int significantDigits) {
+      double magnitude = Math.abs(value);
+
+      if (magnitude > 0 && magnitude < Double.POSITIVE_INFINITY && significantDigits <= 6) {
+        int exponent = (int) Math.floor(Math.log10(magnitude));
+        int scale = significantDigits - 1 - exponent;
+
+        if (Math.abs(scale) < POWERS_OF_TEN.length) {
+          double power = POWERS_OF_TEN[Math.abs(scale)];
+          double scaled = scale >= 0 ? magnitude * power : magnitude / power;
+          double fraction = scaled - Math.floor(scaled);
+
+          if (scaled > POWERS_OF_TEN[significantDigits - 1] * (1 + TIE_MARGIN) &&
+                  scaled < POWERS_OF_TEN[significantDigits] * (1 - TIE_MARGIN) &&
+                  Math.abs(fraction - 0.5) > TIE_MARGIN) {
+            double digits = Math.rint(scaled);
+            return Math.copySign(scale >= 0 ? digits / power : digits * power, value);
+          }
+        }
+      }
 
-        return prodCalendar.get(Calendar.YEAR);
+      return BigDecimal.valueOf(value).round(new MathContext(significantDigits, RoundingMode.HALF_EVEN)).doubleValue();
     }
 
     public String toString() {
@@ -214,7 +252,7 @@ public class Ship implements Serializable {
     map.put("name", name);
     map.put("planet", planet);
     map.put("shipType", shipType);
-    map.put("prodDate", String.valueOf(prodDate.getTime()));
+    map.put("prodDate", String.valueOf(ShipDates.toEpochMilli(prodDate)));
     map.put("isUsed", String.valueOf(isUsed));
     map.put("speed", String.valueOf(speed));
     map.put("crewSize", String.valueOf(crewSize));
@@ -228,8 +266,8 @@ public class Ship implements Serializable {
       public static final int MIN = 2800;
       public static final int MAX = 3019;
 
-      ProdDate(Date prodDate) {
-        super(getYear(prodDate));
+      ProdDate(LocalDate prodDate) {
+        super(prodDate.getYear());
       }
 
     }
@@ -0,0 +1,34 @@
+package com.space.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Conversions between the production date of a ship and the epoch millis used by the REST API.
+ * A date stands for its first moment in the default time zone, as a {@code java.sql.Date} did.
+ */
+public final class ShipDates {
+
+    private ShipDates() { }
+
+    public static long toEpochMilli(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * The date containing the moment {@code epochMilli}.
+     */
+    public static LocalDate fromEpochMilli(long epochMilli) {
+        return Instant.ofEpochMilli(epochMilli).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /**
+     * The first date that does not start before {@code epochMilli}: a date is before the moment
+     * exactly when it is before this date.
+     */
+    public static LocalDate ceilFromEpochMilli(long epochMilli) {
+        LocalDate date = fromEpochMilli(epochMilli);
+        return toEpochMilli(date) == epochMilli ? date : date.plusDays(1);
+    }
+}
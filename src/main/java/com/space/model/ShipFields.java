@@ -0,0 +1,67 @@
+package com.space.model;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds a new ship from the string fields of a create request or of an imported line, with the
+ * same rules for both. Range checks are left to the setters of {@link Ship}.
+ */
+public final class ShipFields {
+
+    public static final int MAX_TEXT_LENGTH = 50;
+
+    private ShipFields() { }
+
+    /**
+     * The id is left to the database.
+     *
+     * @throws IllegalArgumentException if a field is missing or malformed
+     * @throws RuntimeException one of the {@code NotReal*} exceptions of the setters if a value is out of range
+     */
+    public static Ship toNewShip(Map<String, String> fields) {
+        String name = text(fields, "name");
+        String planet = text(fields, "planet");
+        String shipType = required(fields, "shipType");
+        long prodDate = number(fields, "prodDate", Long::parseLong);
+        double speed = number(fields, "speed", Double::parseDouble);
+        int crewSize = number(fields, "crewSize", Integer::parseInt);
+
+        boolean isUsed = fields.get("isUsed") != null && Boolean.parseBoolean(fields.get("isUsed"));
+
+        return new Ship(
+                name,
+                planet,
+                shipType,
+                ShipDates.fromEpochMilli(prodDate),
+                isUsed,
+                speed,
+                crewSize
+        );
+    }
+
+    private static String required(Map<String, String> fields, String field) {
+        String value = fields.get(field);
+        if (value == null) {
+            throw new IllegalArgumentException("Не задано поле " + field);
+        }
+        return value;
+    }
+
+    private static String text(Map<String, String> fields, String field) {
+        String value = required(fields, field);
+        if (value.isEmpty() || value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("Поле " + field + " должно содержать от 1 до " + MAX_TEXT_LENGTH + " символов");
+        }
+        return value;
+    }
+
+    private static <T> T number(Map<String, String> fields, String field, Function<String, T> parser) {
+        String value = required(fields, field);
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректное число в поле " + field + ": " + value);
+        }
+    }
+}
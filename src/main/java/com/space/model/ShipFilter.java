@@ -0,0 +1,157 @@
+package com.space.model;
+
+import java.beans.ConstructorProperties;
+import java.util.Objects;
+
+/**
+ * Filter parameters of a ship search. Every field is optional: {@code null} (or a blank
+ * name/planet) means the parameter was not supplied and must not restrict the result.
+ *
+ * Controllers bind it as a {@code @ModelAttribute} from the request parameters of the same names,
+ * through the constructor.
+ */
+public class ShipFilter {
+
+    private final String name;
+    private final String planet;
+    private final ShipType shipType;
+    private final Long after;
+    private final Long before;
+    private final Boolean isUsed;
+    private final Double minSpeed;
+    private final Double maxSpeed;
+    private final Integer minCrewSize;
+    private final Integer maxCrewSize;
+    private final Double minRating;
+    private final Double maxRating;
+
+    @ConstructorProperties({"name", "planet", "shipType", "after", "before", "isUsed",
+            "minSpeed", "maxSpeed", "minCrewSize", "maxCrewSize", "minRating", "maxRating"})
+    public ShipFilter(
+            String name, String planet,
+            ShipType shipType,
+            Long after, Long before,
+            Boolean isUsed,
+            Double minSpeed, Double maxSpeed,
+            Integer minCrewSize, Integer maxCrewSize,
+            Double minRating, Double maxRating)
+    {
+        this.name = toNullIfBlank(name);
+        this.planet = toNullIfBlank(planet);
+        this.shipType = shipType;
+        this.after = after;
+        this.before = before;
+        this.isUsed = isUsed;
+        this.minSpeed = minSpeed;
+        this.maxSpeed = maxSpeed;
+        this.minCrewSize = minCrewSize;
+        this.maxCrewSize = maxCrewSize;
+        this.minRating = minRating;
+        this.maxRating = maxRating;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPlanet() {
+        return planet;
+    }
+
+    public ShipType getShipType() {
+        return shipType;
+    }
+
+    public Long getAfter() {
+        return after;
+    }
+
+    public Long getBefore() {
+        return before;
+    }
+
+    public Boolean getIsUsed() {
+        return isUsed;
+    }
+
+    public Double getMinSpeed() {
+        return minSpeed;
+    }
+
+    public Double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public Integer getMinCrewSize() {
+        return minCrewSize;
+    }
+
+    public Integer getMaxCrewSize() {
+        return maxCrewSize;
+    }
+
+    public Double getMinRating() {
+        return minRating;
+    }
+
+    public Double getMaxRating() {
+        return maxRating;
+    }
+
+    /**
+     * Whether no parameter was supplied, so the filter matches every ship.
+     */
+    public boolean isEmpty() {
+        return name == null && planet == null && shipType == null &&
+                after == null && before == null && isUsed == null &&
+                minSpeed == null && maxSpeed == null &&
+                minCrewSize == null && maxCrewSize == null &&
+                minRating == null && maxRating == null;
+    }
+
+    private static String toNullIfBlank(String value) {
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ShipFilter that = (ShipFilter) o;
+        return Objects.equals(name, that.name) &&
+                Objects.equals(planet, that.planet) &&
+                shipType == that.shipType &&
+                Objects.equals(after, that.after) &&
+                Objects.equals(before, that.before) &&
+                Objects.equals(isUsed, that.isUsed) &&
+                Objects.equals(minSpeed, that.minSpeed) &&
+                Objects.equals(maxSpeed, that.maxSpeed) &&
+                Objects.equals(minCrewSize, that.minCrewSize) &&
+                Objects.equals(maxCrewSize, that.maxCrewSize) &&
+                Objects.equals(minRating, that.minRating) &&
+                Objects.equals(maxRating, that.maxRating);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+    }
+
+    public String toString() {
+        return "ShipFilter{name=" + name +
+                ", planet=" + planet +
+                ", shipType=" + shipType +
+                ", after=" + after +
+                ", before=" + before +
+                ", isUsed=" + isUsed +
+                ", speed=" + minSpeed + ".." + maxSpeed +
+                ", crewSize=" + minCrewSize + ".." + maxCrewSize +
+                ", rating=" + minRating + ".." + maxRating +
+                "}";
+    }
+}
@@ -1,61 +1,28 @@
 package com.space.repository;
 
 import com.space.model.Ship;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Repository
-public interface ShipRepository extends JpaRepository<Ship, Long>, JpaSpecificationExecutor<Ship> {
-
-
-    @Query(value = "SELECT s FROM #{#entityName} s "
-            +
-            "WHERE "
-            + "s.name LIKE CONCAT('%', :name, '%') " +
-            " AND "
-            + "s.planet LIKE CONCAT('%',:planet,'%') " +
-            " AND "
-            + "s.shipType IN (:shipTypes)" +
-            " AND ("
-            + " s.isUsed = :isUsed "
-            + " OR "
-            + " s.isUsed <> :isNew "
-            + ")" +
-            " AND "
-            + " s.speed >= :minSpeed " +
-            " AND "
-            + " s.speed <= :maxSpeed" +
-            " AND "
-            + " s.crewSize >= :minCrewSize " +
-            " AND "
-            + " s.crewSize <= :maxCrewSize" +
-            " AND "
-            + " s.rating >= :minRating" +
-            " AND "
-            + " s.rating <= :maxRating "
-
-    )
-    List<Ship> selectShips(
-            @Param("name") String name,
-            @Param("planet") String planet,
-            @Param("shipTypes") List<String> shipTypes,
-            @Param("isUsed") Boolean isUsed,
-            @Param("isNew") Boolean isNew,
-            @Param("minSpeed") Double minSpeed,
-            @Param("maxSpeed") Double maxSpeed,
-            @Param("minCrewSize") Integer minCrewSize,
-            @Param("maxCrewSize") Integer maxCrewSize,
-            @Param("minRating") Double minRating,
-            @Param("maxRating") Double maxRating,
-
-            Sort sort
-            );
+public interface ShipRepository extends JpaRepository<Ship, Long>, JpaSpecificationExecutor<Ship>, ShipRepositoryCustom {
 
     List<Ship> findAllCustom();
+
+    /**
+     * Deletes the ship in a single statement, without loading it first.
+     *
+     * @return the number of deleted rows, 0 if there was no such ship
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Ship s where s.id = :id")
+    int deleteShipById(@Param("id") long id);
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public interface ShipRepositoryCustom {
+
+    /**
+     * Ships matching {@code filter} ordered by {@code (sortField, id)}, skipping {@code offset} rows.
+     */
+    List<Ship> selectShips(ShipFilter filter, String sortField, int offset, int limit);
+
+    /**
+     * Same rows as {@link #selectShips}, handed to {@code action} one by one while they are read
+     * through a forward-only cursor. Each ship is detached once {@code action} returns, so memory
+     * does not grow with the number of rows.
+     */
+    void forEachShip(ShipFilter filter, String sortField, int offset, int limit, Consumer<Ship> action);
+
+    /**
+     * The values of {@code attributes} of the ships {@link #selectShips} would return, handed to
+     * {@code action} row by row as they are read through a forward-only cursor. Only these columns
+     * are selected and no entities are built, so nothing is kept in the persistence context.
+     */
+    void forEachRow(ShipFilter filter, String sortField, List<String> attributes, int offset, int limit,
+                    Consumer<Object[]> action);
+
+    /**
+     * Keyset variant of {@link #selectShips}: returns up to {@code limit} ships ordered by
+     * {@code (sortField, id)} that come strictly after {@code (lastKey, lastId)}.
+     * A {@code null} lastId starts from the first ship.
+     */
+    List<Ship> selectShipsAfter(ShipFilter filter, String sortField, Object lastKey, Long lastId, int limit);
+
+    /**
+     * Ids of the ships matching {@code filter} in {@code (sortField, id)} order, skipping {@code offset} matches.
+     */
+    List<Long> selectShipIds(ShipFilter filter, String sortField, int offset, int limit);
+
+    long countShips(ShipFilter filter);
+
+    /**
+     * Applies {@code changes} to the ship in one transaction and writes only the changed columns.
+     * Nothing is written if {@code changes} throws.
+     *
+     * @param expectedVersion the version the caller last saw, {@code null} to accept any
+     * @return the updated ship, or {@code null} if there is no such ship
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the ship is at another
+     *         version or was changed concurrently
+     */
+    Ship updateShip(long id, Long expectedVersion, Consumer<Ship> changes);
+
+    /**
+     * Inserts the ships with one JDBC batch in one transaction and sets their generated ids.
+     */
+    void insertShips(List<Ship> ships);
+
+    /**
+     * Deletes every ship matching {@code filter} with one statement.
+     *
+     * @return the number of deleted ships
+     */
+    int deleteShips(ShipFilter filter);
+
+    /**
+     * Sets the attributes named in {@code values} on every ship matching {@code filter} with one
+     * statement. Derived columns are not recomputed, so the values must not affect the rating.
+     *
+     * @return the number of updated ships
+     */
+    int updateShips(ShipFilter filter, Map<String, Object> values);
+
+    /**
+     * Applies {@code changes} in one transaction to up to {@code limit} ships matching
+     * {@code filter} in id order after {@code lastId} ({@code null} for the first chunk).
+     *
+     * @return the updated ships
+     */
+    List<Ship> updateShipsAfter(ShipFilter filter, Long lastId, int limit, Consumer<Ship> changes);
+}
@@ -0,0 +1,342 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.Query;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class ShipRepositoryImpl implements ShipRepositoryCustom {
+
+    private static final String ID_FIELD = "id";
+
+    private static final String VERSION_FIELD = "version";
+
+    private static final String INSERT_SHIP =
+            "insert into ship (name, planet, shipType, prodDate, isUsed, speed, crewSize, rating) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${ship.stream.fetch-size:500}")
+    private int streamFetchSize;
+
+    // Criteria trees are mutable and tied to the entity manager that built them, so every call
+    // builds its own; Hibernate caches the query it renders from a tree in its query plan cache.
+    @Override
+    public List<Ship> selectShips(ShipFilter filter, String sortField, int offset, int limit) {
+        int shape = ShipSpecifications.shapeOf(filter);
+
+        CriteriaQuery<Ship> plan = selectPlan(ShipSpecifications.matching(shape), sortField);
+
+        TypedQuery<Ship> query = entityManager.createQuery(plan)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .setHint(QueryHints.CACHEABLE, true);
+        ShipSpecifications.bind(query, filter);
+
+        return query.getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachShip(ShipFilter filter, String sortField, int offset, int limit, Consumer<Ship> action) {
+        int shape = ShipSpecifications.shapeOf(filter);
+
+        CriteriaQuery<Ship> plan = selectPlan(ShipSpecifications.matching(shape), sortField);
+
+        TypedQuery<Ship> query = entityManager.createQuery(plan)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .setHint(QueryHints.FETCH_SIZE, streamFetchSize)
+                .setHint(QueryHints.READ_ONLY, true);
+        ShipSpecifications.bind(query, filter);
+
+        // the second-level cache should not fill up with a whole export; a query hint only covers
+        // the execution, while the rows of a stream are read later, so the session mode is set
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.IGNORE);
+        try (Stream<Ship> ships = query.getResultStream()) {
+            ships.forEach(ship -> {
+                action.accept(ship);
+                entityManager.detach(ship);
+            });
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachRow(ShipFilter filter, String sortField, List<String> attributes, int offset, int limit,
+                           Consumer<Object[]> action) {
+        int shape = ShipSpecifications.shapeOf(filter);
+
+        CriteriaQuery<Tuple> plan = rowPlan(ShipSpecifications.matching(shape), sortField, attributes);
+
+        TypedQuery<Tuple> query = entityManager.createQuery(plan)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .setHint(QueryHints.FETCH_SIZE, streamFetchSize);
+        ShipSpecifications.bind(query, filter);
+
+        try (Stream<Tuple> rows = query.getResultStream()) {
+            rows.map(Tuple::toArray).forEach(action);
+        }
+    }
+
+    @Override
+    public List<Ship> selectShipsAfter(ShipFilter filter, String sortField, Object lastKey, Long lastId, int limit) {
+        if (lastId == null) {
+            return selectShips(filter, sortField, 0, limit);
+        }
+
+        int shape = ShipSpecifications.shapeOf(filter);
+
+        CriteriaQuery<Ship> plan = selectPlan(ShipSpecifications.matching(shape).and(ShipSpecifications.after(sortField)), sortField);
+
+        TypedQuery<Ship> query = entityManager.createQuery(plan)
+                .setMaxResults(limit)
+                .setHint(QueryHints.CACHEABLE, true);
+        ShipSpecifications.bind(query, filter);
+        ShipSpecifications.bindAfter(query, sortField, lastKey, lastId);
+
+        return query.getResultList();
+    }
+
+    @Override
+    public List<Long> selectShipIds(ShipFilter filter, String sortField, int offset, int limit) {
+        int shape = ShipSpecifications.shapeOf(filter);
+
+        CriteriaQuery<Long> plan = idPlan(ShipSpecifications.matching(shape), sortField);
+
+        TypedQuery<Long> query = entityManager.createQuery(plan)
+                .setFirstResult(offset)
+                .setMaxResults(limit);
+        ShipSpecifications.bind(query, filter);
+
+        return query.getResultList();
+    }
+
+    @Override
+    public long countShips(ShipFilter filter) {
+        int shape = ShipSpecifications.shapeOf(filter);
+
+        CriteriaQuery<Long> plan = countPlan(ShipSpecifications.matching(shape));
+
+        TypedQuery<Long> query = entityManager.createQuery(plan)
+                .setHint(QueryHints.CACHEABLE, true);
+        ShipSpecifications.bind(query, filter);
+
+        return query.getSingleResult();
+    }
+
+    @Override
+    @Transactional
+    public Ship updateShip(long id, Long expectedVersion, Consumer<Ship> changes) {
+        // served by the second-level cache when the ship is cached; Ship is @DynamicUpdate
+        Ship ship = entityManager.find(Ship.class, id);
+        if (ship == null) {
+            return null;
+        }
+        // a writer between this read and the flush is caught by the version condition of the UPDATE
+        if (expectedVersion != null && expectedVersion != ship.getVersion()) {
+            throw new OptimisticLockingFailureException("ship " + id + " is at version " + ship.getVersion());
+        }
+
+        changes.accept(ship);
+        entityManager.flush();
+
+        return ship;
+    }
+
+    @Override
+    @Transactional
+    public void insertShips(List<Ship> ships) {
+        // Hibernate cannot batch inserts of IDENTITY ids, so the batch goes through the session's connection
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SHIP, Statement.RETURN_GENERATED_KEYS)) {
+                for (Ship ship : ships) {
+                    statement.setString(1, ship.getName());
+                    statement.setString(2, ship.getPlanet());
+                    statement.setString(3, ship.getShipType());
+                    statement.setDate(4, java.sql.Date.valueOf(ship.getProdDate()));
+                    statement.setBoolean(5, ship.isUsed());
+                    statement.setDouble(6, ship.getSpeed());
+                    statement.setInt(7, ship.getCrewSize());
+                    statement.setDouble(8, ship.getRating());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (Ship ship : ships) {
+                        if (!keys.next()) {
+                            throw new SQLException("no generated id for " + ship);
+                        }
+                        ship.setId(keys.getLong(1));
+                    }
+                }
+            }
+        });
+
+        // the insert bypassed Hibernate, so cached ship queries are outdated; they are evicted once it is
+        // committed, as a concurrent query could cache the old rows again before that
+        SessionFactory sessionFactory = entityManager.unwrap(Session.class).getSessionFactory();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                sessionFactory.getCache().evictDefaultQueryRegion();
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public int deleteShips(ShipFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<Ship> delete = cb.createCriteriaDelete(Ship.class);
+        Root<Ship> root = delete.from(Ship.class);
+
+        Predicate predicate = ShipSpecifications.matching(ShipSpecifications.shapeOf(filter)).toPredicate(root, null, cb);
+        if (predicate != null) {
+            delete.where(predicate);
+        }
+
+        // Hibernate evicts the ship region and the cached queries of a bulk statement itself
+        Query query = entityManager.createQuery(delete);
+        ShipSpecifications.bind(query, filter);
+
+        return query.executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public int updateShips(ShipFilter filter, Map<String, Object> values) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Ship> update = cb.createCriteriaUpdate(Ship.class);
+        Root<Ship> root = update.from(Ship.class);
+
+        values.forEach(update::set);
+        // a bulk statement does not bump versions by itself
+        Path<Long> version = root.get(VERSION_FIELD);
+        update.set(version, cb.sum(version, 1L));
+        Predicate predicate = ShipSpecifications.matching(ShipSpecifications.shapeOf(filter)).toPredicate(root, null, cb);
+        if (predicate != null) {
+            update.where(predicate);
+        }
+
+        Query query = entityManager.createQuery(update);
+        ShipSpecifications.bind(query, filter);
+
+        return query.executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public List<Ship> updateShipsAfter(ShipFilter filter, Long lastId, int limit, Consumer<Ship> changes) {
+        List<Ship> ships = selectShipsAfter(filter, ID_FIELD, lastId, lastId, limit);
+
+        ships.forEach(changes);
+        // the ships share one set of changed columns, so their updates go out as one JDBC batch
+        entityManager.flush();
+
+        return ships;
+    }
+
+    private CriteriaQuery<Ship> selectPlan(Specification<Ship> specification, String sortField) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Ship> query = cb.createQuery(Ship.class);
+        Root<Ship> root = query.from(Ship.class);
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        orderBy(query, root, cb, sortField);
+
+        return query.select(root);
+    }
+
+    // a tuple rather than an array, which Hibernate unwraps to the bare value for a single attribute
+    private CriteriaQuery<Tuple> rowPlan(Specification<Ship> specification, String sortField, List<String> attributes) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Ship> root = query.from(Ship.class);
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        orderBy(query, root, cb, sortField);
+
+        return query.multiselect(attributes.stream().map(root::get).toArray(Selection[]::new));
+    }
+
+    private CriteriaQuery<Long> idPlan(Specification<Ship> specification, String sortField) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Ship> root = query.from(Ship.class);
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        orderBy(query, root, cb, sortField);
+
+        return query.select(root.get(ID_FIELD));
+    }
+
+    private void orderBy(CriteriaQuery<?> query, Root<Ship> root, CriteriaBuilder cb, String sortField) {
+        if (ID_FIELD.equals(sortField)) {
+            query.orderBy(cb.asc(root.get(ID_FIELD)));
+        } else {
+            // ties on the sort field must break the same way on every page
+            query.orderBy(cb.asc(root.get(sortField)), cb.asc(root.get(ID_FIELD)));
+        }
+    }
+
+    private CriteriaQuery<Long> countPlan(Specification<Ship> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Ship> root = query.from(Ship.class);
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        return query.select(cb.count(root));
+    }
+}
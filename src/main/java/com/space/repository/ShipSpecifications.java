@@ -0,0 +1,229 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+import com.space.model.ShipDates;
+import com.space.model.ShipFilter;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.ClassUtils;
+
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDate;
+
+/**
+ * Specifications of ship searches. Predicates are emitted only for the filter parameters that
+ * were actually supplied, and they compare against named parameters instead of literals, so the
+ * query rendered from a criteria tree depends only on the filter's shape (see {@link #shapeOf}), and
+ * Hibernate's query plan cache reuses it for every search of that shape. Values are bound afterwards
+ * with {@link #bind}.
+ */
+public final class ShipSpecifications {
+
+    private static final String LAST_KEY = "lastKey";
+    private static final String LAST_ID = "lastId";
+
+    // not a backslash, which MySQL would read as escaping the closing quote of ESCAPE '\'
+    private static final char LIKE_ESCAPE = '!';
+
+    private enum Criterion {
+        NAME {
+            Predicate toPredicate(Root<Ship> root, CriteriaBuilder cb) {
+                return cb.like(root.get("name"), cb.parameter(String.class, name()), LIKE_ESCAPE);
+            }
+
+            Object value(ShipFilter filter) {
+                return filter.getName() == null ? null : containing(filter.getName());
+            }
+        },
+        PLANET {
+            Predicate toPredicate(Root<Ship> root, CriteriaBuilder cb) {
+                return cb.like(root.get("planet"), cb.parameter(String.class, name()), LIKE_ESCAPE);
+            }
+
+            Object value(ShipFilter filter) {
+                return filter.getPlanet() == null ? null : containing(filter.getPlanet());
+            }
+        },
+        SHIP_TYPE {
+            Predicate toPredicate(Root<Ship> root, CriteriaBuilder cb) {
+                return cb.equal(root.get("shipType"), cb.parameter(String.class, name()));
+            }
+
+            Object value(ShipFilter filter) {
+                return filter.getShipType() == null ? null : filter.getShipType().name();
+            }
+        },
+        AFTER {
+            Predicate toPredicate(Root<Ship> root, CriteriaBuilder cb) {
+                return cb.greaterThan(root.get("prodDate"), cb.parameter(LocalDate.class, name()));
+            }
+
+            // a date starts after the moment exactly when it is after the date containing it
+            Object value(ShipFilter filter) {
+                return filter.getAfter() == null ? null : ShipDates.fromEpochMilli(filter.getAfter());
+            }
+        },
+        BEFORE {
+            Predicate toPredicate(Root<Ship> root, CriteriaBuilder cb) {
+                return cb.lessThan(root.get("prodDate"), cb.parameter(LocalDate.class, name()));
+            }
+
+            Object value(ShipFilter filter) {
+                return filter.getBefore() == null ? null : ShipDates.ceilFromEpochMilli(filter.getBefore());
+            }
+        },
+        IS_USED {
+            Predicate toPredicate(Root<Ship> root, CriteriaBuilder cb) {
+                return cb.equal(root.get("isUsed"), cb.parameter(Boolean.class, name()));
+            }
+
+            Object value(ShipFilter filter) {
+                return filter.getIsUsed();
+            }
+        },
+        MIN_SPEED {
+            Predicate toPredicate(Root<Ship> root, CriteriaBuilder cb) {
+                return cb.ge(root.get("speed"), cb.parameter(Double.class, name()));
+            }
+
+            Object value(ShipFilter filter) {
+                return filter.getMinSpeed();
+            }
+        },
+        MAX_SPEED {
+            Predicate toPredicate(Root<Ship> root, CriteriaBuilder cb) {
+                return cb.le(root.get("speed"), cb.parameter(Double.class, name()));
+            }
+
+            Object value(ShipFilter filter) {
+                return filter.getMaxSpeed();
+            }
+        },
+        MIN_CREW_SIZE {
+            Predicate toPredicate(Root<Ship> root, CriteriaBuilder cb) {
+                return cb.ge(root.get("crewSize"), cb.parameter(Integer.class, name()));
+            }
+
+            Object value(ShipFilter filter) {
+                return filter.getMinCrewSize();
+            }
+        },
+        MAX_CREW_SIZE {
+            Predicate toPredicate(Root<Ship> root, CriteriaBuilder cb) {
+                return cb.le(root.get("crewSize"), cb.parameter(Integer.class, name()));
+            }
+
+            Object value(ShipFilter filter) {
+                return filter.getMaxCrewSize();
+            }
+        },
+        MIN_RATING {
+            Predicate toPredicate(Root<Ship> root, CriteriaBuilder cb) {
+                return cb.ge(root.get("rating"), cb.parameter(Double.class, name()));
+            }
+
+            Object value(ShipFilter filter) {
+                return filter.getMinRating();
+            }
+        },
+        MAX_RATING {
+            Predicate toPredicate(Root<Ship> root, CriteriaBuilder cb) {
+                return cb.le(root.get("rating"), cb.parameter(Double.class, name()));
+            }
+
+            Object value(ShipFilter filter) {
+                return filter.getMaxRating();
+            }
+        };
+
+        abstract Predicate toPredicate(Root<Ship> root, CriteriaBuilder cb);
+
+        abstract Object value(ShipFilter filter);
+
+        int bit() {
+            return 1 << ordinal();
+        }
+    }
+
+    private ShipSpecifications() { }
+
+    /**
+     * Bit mask of the supplied filter parameters. Two filters with the same shape share one query plan.
+     */
+    public static int shapeOf(ShipFilter filter) {
+        int shape = 0;
+        for (Criterion criterion : Criterion.values()) {
+            if (criterion.value(filter) != null) {
+                shape |= criterion.bit();
+            }
+        }
+        return shape;
+    }
+
+    public static Specification<Ship> matching(int shape) {
+        Specification<Ship> specification = Specification.where(null);
+        for (Criterion criterion : Criterion.values()) {
+            if ((shape & criterion.bit()) != 0) {
+                specification = specification.and((root, query, cb) -> criterion.toPredicate(root, cb));
+            }
+        }
+        return specification;
+    }
+
+    /**
+     * Seek predicate of keyset pagination: rows strictly after {@code (lastKey, lastId)} in
+     * {@code (sortField, id)} order. Bound with {@link #bindAfter}.
+     */
+    @SuppressWarnings("unchecked")
+    public static Specification<Ship> after(String sortField) {
+        return (root, query, cb) -> {
+            Expression<Long> id = root.get("id");
+            Expression<Long> lastId = cb.parameter(Long.class, LAST_ID);
+
+            if ("id".equals(sortField)) {
+                return cb.greaterThan(id, lastId);
+            }
+
+            Path<Comparable<Object>> key = root.get(sortField);
+            // primitive attributes (speed, rating) need the wrapper type as parameter type
+            Class<?> keyType = ClassUtils.resolvePrimitiveIfNecessary(key.getJavaType());
+            Expression<Comparable<Object>> lastKey = cb.parameter((Class<Comparable<Object>>) keyType, LAST_KEY);
+
+            return cb.or(
+                    cb.greaterThan(key, lastKey),
+                    cb.and(cb.equal(key, lastKey), cb.greaterThan(id, lastId))
+            );
+        };
+    }
+
+    // a LIKE pattern for the value as a plain substring: % and _ given by the client are no wildcards,
+    // so the search matches what the index finds
+    private static String containing(String value) {
+        String literal = value
+                .replace(String.valueOf(LIKE_ESCAPE), LIKE_ESCAPE + String.valueOf(LIKE_ESCAPE))
+                .replace("%", LIKE_ESCAPE + "%")
+                .replace("_", LIKE_ESCAPE + "_");
+        return "%" + literal + "%";
+    }
+
+    public static void bind(Query query, ShipFilter filter) {
+        for (Criterion criterion : Criterion.values()) {
+            Object value = criterion.value(filter);
+            if (value != null) {
+                query.setParameter(criterion.name(), value);
+            }
+        }
+    }
+
+    public static void bindAfter(Query query, String sortField, Object lastKey, long lastId) {
+        query.setParameter(LAST_ID, lastId);
+
+        if (!"id".equals(sortField)) {
+            query.setParameter(LAST_KEY, lastKey);
+        }
+    }
+}
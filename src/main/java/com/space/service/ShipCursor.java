@@ -0,0 +1,89 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token of the keyset pagination mode: the sort key and id of the last ship
+ * of a page. The next page starts strictly after this pair.
+ */
+public class ShipCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final ShipOrder order;
+    private final Object key;
+    private final long id;
+
+    private ShipCursor(ShipOrder order, Object key, long id) {
+        this.order = order;
+        this.key = key;
+        this.id = id;
+    }
+
+    public static ShipCursor of(ShipOrder order, Ship ship) {
+        Object key;
+        switch (order) {
+            case SPEED:
+                key = ship.getSpeed();
+                break;
+            case DATE:
+                key = ship.getProdDate();
+                break;
+            case RATING:
+                key = ship.getRating();
+                break;
+            default:
+                key = ship.getId();
+        }
+        return new ShipCursor(order, key, ship.getId());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is malformed or was issued for another order
+     */
+    public static ShipCursor decode(String token, ShipOrder order) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\" + SEPARATOR);
+
+        if (parts.length != 3 || !order.name().equals(parts[0])) {
+            throw new IllegalArgumentException("cursor does not belong to order " + order);
+        }
+
+        Object key;
+        switch (order) {
+            case SPEED:
+            case RATING:
+                key = Double.valueOf(parts[1]);
+                break;
+            case DATE:
+                key = LocalDate.ofEpochDay(Long.parseLong(parts[1]));
+                break;
+            default:
+                key = Long.valueOf(parts[1]);
+        }
+        return new ShipCursor(order, key, Long.parseLong(parts[2]));
+    }
+
+    public String encode() {
+        String keyText = key instanceof LocalDate ? String.valueOf(((LocalDate) key).toEpochDay()) : String.valueOf(key);
+        String raw = order.name() + SEPARATOR + keyText + SEPARATOR + id;
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ShipOrder getOrder() {
+        return order;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
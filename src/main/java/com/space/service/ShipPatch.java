@@ -0,0 +1,110 @@
+package com.space.service;
+
+import com.space.model.Ship;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * New values for some attributes of many ships at once. The values are taken from a ship the
+ * changes were already applied to, so they passed the same checks as a single update.
+ */
+public class ShipPatch {
+
+    private static final String NAME = "name";
+    private static final String PLANET = "planet";
+    private static final String SHIP_TYPE = "shipType";
+    private static final String PROD_DATE = "prodDate";
+    private static final String IS_USED = "isUsed";
+    private static final String SPEED = "speed";
+    private static final String CREW_SIZE = "crewSize";
+
+    private final Map<String, Object> values;
+
+    private ShipPatch(Map<String, Object> values) {
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * The values of {@code attributes} in {@code changed}; names that are not patchable
+     * attributes (id, rating) are ignored.
+     */
+    public static ShipPatch of(Ship changed, Collection<String> attributes) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String attribute : attributes) {
+            switch (attribute) {
+                case NAME:
+                    values.put(NAME, changed.getName());
+                    break;
+                case PLANET:
+                    values.put(PLANET, changed.getPlanet());
+                    break;
+                case SHIP_TYPE:
+                    values.put(SHIP_TYPE, changed.getShipType());
+                    break;
+                case PROD_DATE:
+                    values.put(PROD_DATE, changed.getProdDate());
+                    break;
+                case IS_USED:
+                    values.put(IS_USED, changed.isUsed());
+                    break;
+                case SPEED:
+                    values.put(SPEED, changed.getSpeed());
+                    break;
+                case CREW_SIZE:
+                    values.put(CREW_SIZE, changed.getCrewSize());
+                    break;
+                default:
+            }
+        }
+        return new ShipPatch(values);
+    }
+
+    /**
+     * Attribute names and their new values, in request order.
+     */
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    /**
+     * Whether the stored rating of a patched ship has to be recomputed.
+     */
+    public boolean affectsRating() {
+        return values.containsKey(PROD_DATE) || values.containsKey(IS_USED) || values.containsKey(SPEED);
+    }
+
+    public void applyTo(Ship ship) {
+        values.forEach((attribute, value) -> {
+            switch (attribute) {
+                case NAME:
+                    ship.setName((String) value);
+                    break;
+                case PLANET:
+                    ship.setPlanet((String) value);
+                    break;
+                case SHIP_TYPE:
+                    ship.setShipType((String) value);
+                    break;
+                case PROD_DATE:
+                    ship.setProdDate((LocalDate) value);
+                    break;
+                case IS_USED:
+                    ship.setIsUsed((Boolean) value);
+                    break;
+                case SPEED:
+                    ship.setSpeed((Double) value);
+                    break;
+                default:
+                    ship.setCrewSize((Integer) value);
+            }
+        });
+    }
+}
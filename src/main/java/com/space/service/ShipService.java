@@ -2,26 +2,45 @@ package com.space.service;
 
 import com.space.controller.ShipOrder;
 import com.space.model.Ship;
-import com.space.model.ShipType;
+import com.space.model.ShipFilter;
 
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface ShipService {
 
-    Collection<Ship> selectShips(
-            String name, String planet,
-            ShipType shipType,
-            Long after, Long before,
-            Boolean isUsed, Boolean isNew,
-            Double minSpeed, Double maxSpeed,
-            Integer minCrewSize, Integer maxCrewSize,
-            Double minRating, Double maxRating,
+    List<Ship> selectShips(ShipFilter filter, Integer pageNumber, Integer pageSize, ShipOrder order);
 
-            Integer pageNumber, Integer pageSize,
+    /**
+     * Streaming variant of {@link #selectShips}: the ships of the page are handed to {@code action}
+     * as they are read from the database, without building the list. A {@code null} page size
+     * means every matching ship.
+     */
+    void forEachShip(ShipFilter filter, Integer pageNumber, Integer pageSize, ShipOrder order, Consumer<Ship> action);
 
-            ShipOrder order);
+    /**
+     * Projection variant of {@link #forEachShip}: only the values of {@code attributes} of the ships
+     * of the page are read and handed to {@code action}, row by row. A {@code null} page size means
+     * every matching ship.
+     */
+    void forEachShipRow(ShipFilter filter, Integer pageNumber, Integer pageSize, ShipOrder order,
+                        List<String> attributes, Consumer<Object[]> action);
+
+    /**
+     * Projection variant of {@link #selectShips}: the values of {@code attributes} of the ships of
+     * the page, row by row. Like {@link #selectShips}, a page size of {@code null} or 0 is capped.
+     */
+    List<Object[]> selectShipRows(ShipFilter filter, Integer pageNumber, Integer pageSize, ShipOrder order,
+                                  List<String> attributes);
+
+    /**
+     * Keyset pagination: the page that follows {@code cursor} in {@code order}, or the first page
+     * when the cursor is {@code null}. Every page costs the same regardless of its depth.
+     */
+    List<Ship> selectShipsAfter(ShipFilter filter, ShipCursor cursor, Integer pageSize, ShipOrder order);
+
+    long countShips(ShipFilter filter);
 
     List<Ship> findAll();
 
@@ -29,7 +48,42 @@ public interface ShipService {
 
     Ship getShipById(Long id);
 
-    void deleteShipById(long id);
+    /**
+     * @return {@code false} if there was no ship with this id
+     */
+    boolean deleteShipById(long id);
 
     void saveShip(Ship searchedShip);
+
+    /**
+     * Inserts new ships in batches, one transaction per chunk. A chunk that fails is rolled back
+     * and its ships keep a {@code null} id; the other chunks are still inserted.
+     *
+     * @return for each ship, in order, why it was not inserted, or {@code null} if it was
+     */
+    List<String> saveShips(List<Ship> ships);
+
+    /**
+     * Applies {@code changes} to the stored ship and writes the changed columns.
+     *
+     * @param expectedVersion the version the caller last saw, {@code null} to accept any
+     * @return the updated ship, or {@code null} if there is no ship with this id
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the ship is at another
+     *         version or was changed concurrently; nothing is written then
+     */
+    Ship updateShip(long id, Long expectedVersion, Consumer<Ship> changes);
+
+    /**
+     * Deletes every ship matching {@code filter}.
+     *
+     * @return the number of deleted ships
+     */
+    int deleteShips(ShipFilter filter);
+
+    /**
+     * Applies {@code patch} to every ship matching {@code filter}.
+     *
+     * @return the number of patched ships
+     */
+    int patchShips(ShipFilter filter, ShipPatch patch);
 }
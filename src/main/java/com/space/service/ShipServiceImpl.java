@@ -2,167 +2,150 @@ package com.space.service;
 
 import com.space.controller.ShipOrder;
 import com.space.model.Ship;
-import com.space.model.ShipType;
+import com.space.model.ShipFilter;
 import com.space.repository.ShipRepository;
-import org.springframework.data.domain.Sort;
+import com.space.service.cache.ShipResultCache;
+import com.space.service.index.ShipCounters;
+import com.space.service.index.ShipIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
-import javax.persistence.EntityManager;
-import javax.persistence.PersistenceContext;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Service
 public class ShipServiceImpl implements ShipService {
 
+    // page size of a list built in memory when the client asks for every ship (null or 0)
+    private static final int MAX_PAGE_SIZE = 99999;
+
+    private static final ShipFilter ALL_SHIPS = new ShipFilter(
+            null, null, null, null, null, null, null, null, null, null, null, null);
+
     private ShipRepository shipRepository;
 
-    public ShipServiceImpl(ShipRepository shipRepository) {
+    private ShipIndex shipIndex;
+
+    private ShipResultCache resultCache;
+
+    private ShipCounters shipCounters;
+
+    private int batchChunkSize;
+
+    public ShipServiceImpl(ShipRepository shipRepository, ShipIndex shipIndex, ShipResultCache resultCache,
+                           ShipCounters shipCounters, @Value("${ship.batch.chunk-size:500}") int batchChunkSize) {
         this.shipRepository = shipRepository;
+        this.shipIndex = shipIndex;
+        this.resultCache = resultCache;
+        this.shipCounters = shipCounters;
+        this.batchChunkSize = batchChunkSize;
     }
 
     @Override
-    public Collection<Ship> selectShips(
-        String name, String planet,
-        ShipType shipType,
-        Long after, Long before,
-        Boolean isUsed, Boolean isNew,
-        Double minSpeed, Double maxSpeed,
-        Integer minCrewSize, Integer maxCrewSize,
-        Double minRating, Double maxRating,
+    public List<Ship> selectShips(ShipFilter filter, Integer pageNumber, Integer pageSize, ShipOrder order) {
 
-        Integer pageNumber, Integer pageSize,
+        pageNumber = pageNumber == null ? 0 : pageNumber;
+        pageSize = pageSize == null || pageSize == 0 ? MAX_PAGE_SIZE : pageSize;
 
-        ShipOrder order)
-    {
+        order = order == null ? ShipOrder.ID : order;
 
-        List<String> shipTypes = getSelectedShipTypes(shipType);
+        int offset = (int) Math.min((long) pageNumber * pageSize, Integer.MAX_VALUE);
 
-        minSpeed = minSpeed == null ? 0 : minSpeed;
-        maxSpeed = maxSpeed == null ? 99999 : maxSpeed;
+        if (resultCache.isEnabled()) {
+            ShipOrder searchOrder = order;
+            int limit = pageSize;
+            return loadInOrder(resultCache.ids(filter, order, offset, limit, () -> searchIds(filter, searchOrder, offset, limit)));
+        }
 
-        minRating = minRating == null ? 0 : minRating;
-        maxRating = maxRating == null ? 99999 : maxRating;
+        if (shipIndex.isEnabled()) {
+            return loadInOrder(loadedIndex().select(filter, order, offset, pageSize));
+        }
 
-        minCrewSize = minCrewSize == null ? Ship.CrewSize.MIN : minCrewSize;
-        maxCrewSize = maxCrewSize == null ? Ship.CrewSize.MAX : maxCrewSize;
+        return shipRepository.selectShips(filter, order.getFieldName(), offset, pageSize);
+    }
+
+    @Override
+    public void forEachShip(ShipFilter filter, Integer pageNumber, Integer pageSize, ShipOrder order, Consumer<Ship> action) {
 
         pageNumber = pageNumber == null ? 0 : pageNumber;
-        pageSize = pageSize == null || pageSize == 0  ? 99999 : pageSize;
+        pageSize = pageSize == null || pageSize == 0 ? Integer.MAX_VALUE : pageSize;
 
-        String sortOrder = order == null ? ShipOrder.ID.getFieldName() : order.getFieldName();
+        order = order == null ? ShipOrder.ID : order;
 
-        List<Ship> selectedShipsWithAllDates = shipRepository.selectShips(
-                name,
-                planet,
-                shipTypes,
-                isUsed, isNew,
+        int offset = (int) Math.min((long) pageNumber * pageSize, Integer.MAX_VALUE);
 
-                minSpeed, maxSpeed,
+        // always read from the database: the index and the result cache hold ids, and loading
+        // their ships would build the whole page in memory again
+        shipRepository.forEachShip(filter, order.getFieldName(), offset, pageSize, action);
+    }
 
-                minCrewSize, maxCrewSize,
-                minRating, maxRating,
+    @Override
+    public void forEachShipRow(ShipFilter filter, Integer pageNumber, Integer pageSize, ShipOrder order,
+                               List<String> attributes, Consumer<Object[]> action) {
 
-                Sort.by(Sort.Direction.ASC, sortOrder)
-        );
+        pageNumber = pageNumber == null ? 0 : pageNumber;
+        pageSize = pageSize == null || pageSize == 0 ? Integer.MAX_VALUE : pageSize;
 
-        List<Ship> selectedShips = filterDates(selectedShipsWithAllDates, after, before);
-
-        return selectedShips.stream()
-                .skip(pageNumber * pageSize)
-                .limit(pageSize)
-                .collect(Collectors.toList());
-    }
-
-    private List<Ship> filterDates(List<Ship> selectedShipsWithAllDates, Long after, Long before) {
-
-//        if(after == null && before == null){
-//            return selectedShipsWithAllDates;
-//        }
-//
-//        List<Ship> ships = new ArrayList<>();
-//
-//        if (after == null) {
-//            Calendar beforeCalendar = getCalendarDate(before);
-//
-//
-//            for (Ship ship : selectedShipsWithAllDates) {
-//                Calendar productionDate = getCalendarDate(ship.getProdDate());
-//
-//                if((productionDate.get(Calendar.YEAR) - beforeCalendar.get(Calendar.YEAR)) < 0){
-//                    ships.add(ship);
-//                }
-//            }
-//
-//            return ships;
-//        }
-//
-//        if (before == null) {
-//            Calendar afterCalendar = getCalendarDate(after);
-//
-//            for (Ship ship : selectedShipsWithAllDates) {
-//                Calendar productionDate = getCalendarDate(ship.getProdDate());
-//
-//                if((productionDate.get(Calendar.YEAR) -  afterCalendar.get(Calendar.YEAR)) >= 0){
-//                    ships.add(ship);
-//                }
-//            }
-//
-//            return ships;
-//        }
-//
-//        Calendar afterCalendar = getCalendarDate(after);
-//
-//        Calendar beforeCalendar = getCalendarDate(before);
-//
-//
-//        for (Ship ship : selectedShipsWithAllDates) {
-//            Calendar productionDate = getCalendarDate(ship.getProdDate());
-//
-//            if((productionDate.get(Calendar.YEAR) -  afterCalendar.get(Calendar.YEAR)) >= 0 &&
-//                (productionDate.get(Calendar.YEAR) - beforeCalendar.get(Calendar.YEAR)) < 0)
-//            {
-//                ships.add(ship);
-//            }
-//        }
-//
-//        return ships;
-
-        if(after != null) {
-            selectedShipsWithAllDates = selectedShipsWithAllDates.stream().filter(ship -> ship.getProdDate().after(new Date(after))).collect(Collectors.toList());
-        }
+        order = order == null ? ShipOrder.ID : order;
 
-        if(before != null) {
-            selectedShipsWithAllDates = selectedShipsWithAllDates.stream().filter(ship -> ship.getProdDate().before(new Date(before))).collect(Collectors.toList());
-        }
+        int offset = (int) Math.min((long) pageNumber * pageSize, Integer.MAX_VALUE);
 
-        return selectedShipsWithAllDates;
+        shipRepository.forEachRow(filter, order.getFieldName(), attributes, offset, pageSize, action);
+    }
 
+    @Override
+    public List<Object[]> selectShipRows(ShipFilter filter, Integer pageNumber, Integer pageSize, ShipOrder order,
+                                         List<String> attributes) {
+        List<Object[]> rows = new ArrayList<>();
+        forEachShipRow(filter, pageNumber, pageSize == null || pageSize == 0 ? MAX_PAGE_SIZE : pageSize, order,
+                attributes, rows::add);
+        return rows;
     }
 
-    private Calendar getCalendarDate(Long millisecs) {
-        Calendar afterCalendar = Calendar.getInstance();
-        afterCalendar.setTimeInMillis(millisecs);
-        return afterCalendar;
+    @Override
+    public List<Ship> selectShipsAfter(ShipFilter filter, ShipCursor cursor, Integer pageSize, ShipOrder order) {
+
+        pageSize = pageSize == null || pageSize == 0 ? MAX_PAGE_SIZE : pageSize;
+
+        order = order == null ? ShipOrder.ID : order;
+
+        if (shipIndex.isEnabled()) {
+            return loadInOrder(loadedIndex().selectAfter(
+                    filter,
+                    order,
+                    cursor == null ? null : cursor.getKey(),
+                    cursor == null ? null : cursor.getId(),
+                    pageSize
+            ));
+        }
+
+        return shipRepository.selectShipsAfter(
+                filter,
+                order.getFieldName(),
+                cursor == null ? null : cursor.getKey(),
+                cursor == null ? null : cursor.getId(),
+                pageSize
+        );
     }
 
-    private Calendar getCalendarDate(Date date) {
-        Calendar prodactionDate = Calendar.getInstance();
-        prodactionDate.setTime(date);
-        return prodactionDate;
+    @Override
+    public long countShips(ShipFilter filter) {
+        if (shipCounters.isEnabled() && ShipCounters.canCount(filter)) {
+            shipCounters.loadIfNeeded(this::loadAllShips);
+            return shipCounters.count(filter);
+        }
+        if (resultCache.isEnabled()) {
+            return resultCache.count(filter, () -> searchCount(filter));
+        }
+        return searchCount(filter);
     }
 
-    private List<String> getSelectedShipTypes(ShipType shipType) {
-        List<String> shipTypes = new ArrayList<>();
-        if(shipType == null){
-            shipTypes.add(ShipType.MILITARY.name());
-            shipTypes.add(ShipType.MERCHANT.name());
-            shipTypes.add(ShipType.TRANSPORT.name());
-        } else {
-            String shipTypeName = shipType.name();
-            shipTypes.add(shipTypeName);
+    private long searchCount(ShipFilter filter) {
+        if (shipIndex.isEnabled()) {
+            return loadedIndex().count(filter);
         }
-        return shipTypes;
+        return shipRepository.countShips(filter);
     }
 
     public List<Ship> findAll(){
@@ -188,13 +171,148 @@ public class ShipServiceImpl implements ShipService {
     }
 
     @Override
-    public void deleteShipById(long id) {
-        shipRepository.deleteById(id);
+    public boolean deleteShipById(long id) {
+        if (shipRepository.deleteShipById(id) == 0) {
+            return false;
+        }
+
+        shipIndex.remove(id);
+        shipCounters.remove(id);
+        resultCache.invalidate();
+        return true;
     }
 
     @Override
     public void saveShip(Ship ship) {
-        shipRepository.save(ship);
+        Ship saved = shipRepository.save(ship);
+        shipIndex.put(saved);
+        shipCounters.put(saved);
+        resultCache.invalidate();
+    }
+
+    @Override
+    public List<String> saveShips(List<Ship> ships) {
+        List<String> errors = new ArrayList<>(Collections.nCopies(ships.size(), null));
+
+        for (int from = 0; from < ships.size(); from += batchChunkSize) {
+            List<Ship> chunk = ships.subList(from, Math.min(from + batchChunkSize, ships.size()));
+            try {
+                shipRepository.insertShips(chunk);
+            } catch (DataAccessException e) {
+                String error = e.getMostSpecificCause().getMessage();
+                chunk.forEach(ship -> ship.setId(null));
+                Collections.fill(errors.subList(from, from + chunk.size()), error != null ? error : e.getClass().getSimpleName());
+                continue;
+            }
+
+            for (Ship ship : chunk) {
+                shipIndex.put(ship);
+                shipCounters.put(ship);
+            }
+            resultCache.invalidate();
+        }
+        return errors;
+    }
+
+    @Override
+    public Ship updateShip(long id, Long expectedVersion, Consumer<Ship> changes) {
+        Ship updated = shipRepository.updateShip(id, expectedVersion, changes);
+
+        if (updated != null) {
+            shipIndex.put(updated);
+            shipCounters.put(updated);
+            resultCache.invalidate();
+        }
+        return updated;
+    }
+
+    @Override
+    public int deleteShips(ShipFilter filter) {
+        int deleted = shipRepository.deleteShips(filter);
+
+        if (deleted > 0) {
+            invalidateDerived();
+        }
+        return deleted;
+    }
+
+    @Override
+    public int patchShips(ShipFilter filter, ShipPatch patch) {
+        if (!patch.affectsRating()) {
+            int patched = shipRepository.updateShips(filter, patch.getValues());
+
+            if (patched > 0) {
+                invalidateDerived();
+            }
+            return patched;
+        }
+
+        // the rating is rounded in Java, so these ships are changed in keyset chunks instead of one statement;
+        // a patched ship that stops matching the filter is behind the cursor and is not visited twice
+        int patched = 0;
+        Long lastId = null;
+        List<Ship> chunk;
+        do {
+            chunk = shipRepository.updateShipsAfter(filter, lastId, batchChunkSize, patch::applyTo);
+
+            for (Ship ship : chunk) {
+                shipIndex.put(ship);
+                shipCounters.put(ship);
+            }
+            if (!chunk.isEmpty()) {
+                lastId = chunk.get(chunk.size() - 1).getId();
+                resultCache.invalidate();
+            }
+            patched += chunk.size();
+        } while (chunk.size() == batchChunkSize);
+
+        return patched;
+    }
+
+    // after a bulk statement the changed ids are unknown, so everything derived from the table is rebuilt
+    private void invalidateDerived() {
+        shipIndex.invalidate();
+        shipCounters.invalidate();
+        resultCache.invalidate();
+    }
+
+    private List<Long> searchIds(ShipFilter filter, ShipOrder order, int offset, int limit) {
+        return shipIndex.isEnabled()
+                ? loadedIndex().select(filter, order, offset, limit)
+                : shipRepository.selectShipIds(filter, order.getFieldName(), offset, limit);
+    }
+
+    private ShipIndex loadedIndex() {
+        shipIndex.loadIfNeeded(this::loadAllShips);
+        return shipIndex;
+    }
+
+    // read like a stream, past the second-level cache, so a reload does not push every ship through its bounded regions
+    private List<Ship> loadAllShips() {
+        List<Ship> ships = new ArrayList<>();
+        shipRepository.forEachShip(ALL_SHIPS, ShipOrder.ID.getFieldName(), 0, Integer.MAX_VALUE, ships::add);
+        return ships;
+    }
+
+    // the index or the result cache yields the ids of a page; the ships are loaded in one query and put back in index order
+    private List<Ship> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Ship> shipsById = new HashMap<>();
+        for (Ship ship : shipRepository.findAllById(ids)) {
+            shipsById.put(ship.getId(), ship);
+        }
+
+        List<Ship> ships = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Ship ship = shipsById.get(id);
+            if (ship != null) {
+                ships.add(ship);
+            }
+        }
+        return ships;
     }
 
     private Map<String, Number> getPropLimits(Number min, Number max) {
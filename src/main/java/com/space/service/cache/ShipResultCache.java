@@ -0,0 +1,172 @@
+package com.space.service.cache;
+
+import com.space.controller.ShipOrder;
+import com.space.model.ShipFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of search results: for a filter, an order and a page window, the ids of the
+ * ships of that page, and for a filter, the number of matching ships. An entry costs as much as
+ * its page, so a small page never pulls in the ids of the whole table.
+ *
+ * The cache holds at most {@code ship.result-cache.max-ids} ids, a count weighing as one; the
+ * least recently used entries are dropped beyond that, and a window larger than the whole budget
+ * is not cached at all.
+ *
+ * Every write bumps a version stamp. Entries remember the version they were computed under and
+ * are treated as missing once it is outdated, so nothing has to be flushed on a write.
+ *
+ * Enabled with {@code ship.result-cache.enabled=true}.
+ */
+@Component
+public class ShipResultCache {
+
+    private final boolean enabled;
+    private final long maxIds;
+
+    private final AtomicLong version = new AtomicLong();
+
+    // in access order; guarded by itself, like weight
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    public ShipResultCache(
+            @Value("${ship.result-cache.enabled:false}") boolean enabled,
+            @Value("${ship.result-cache.max-ids:100000}") long maxIds
+    ) {
+        this.enabled = enabled;
+        this.maxIds = maxIds;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ids of the ships matching {@code filter} in {@code order}, skipping {@code offset} matches and
+     * at most {@code limit} of them; computed by {@code search} on a miss.
+     */
+    public List<Long> ids(ShipFilter filter, ShipOrder order, int offset, int limit, Supplier<List<Long>> search) {
+        Key key = new Key(filter, order, offset, limit);
+        long current = version.get();
+
+        Entry entry = get(key, current);
+        if (entry == null) {
+            // searched outside the lock; a write meanwhile leaves this entry outdated from the start
+            List<Long> ids = search.get();
+            long[] values = new long[ids.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = ids.get(i);
+            }
+            entry = put(key, new Entry(current, values, values.length));
+        }
+
+        List<Long> ids = new ArrayList<>(entry.ids.length);
+        for (long id : entry.ids) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Number of ships matching {@code filter}, computed by {@code count} on a miss.
+     */
+    public long count(ShipFilter filter, LongSupplier count) {
+        Key key = new Key(filter, null, 0, 0);
+        long current = version.get();
+
+        Entry entry = get(key, current);
+        if (entry == null) {
+            entry = put(key, new Entry(current, null, count.getAsLong()));
+        }
+        return entry.count;
+    }
+
+    /**
+     * Outdates every entry; called on each write.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    private Entry get(Key key, long current) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            return entry != null && entry.version == current ? entry : null;
+        }
+    }
+
+    private Entry put(Key key, Entry entry) {
+        if (entry.weight() > maxIds) {
+            return entry;
+        }
+
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            weight += entry.weight() - (previous == null ? 0 : previous.weight());
+
+            for (Iterator<Entry> eldest = entries.values().iterator(); weight > maxIds; ) {
+                weight -= eldest.next().weight();
+                eldest.remove();
+            }
+        }
+        return entry;
+    }
+
+    private static final class Entry {
+
+        private final long version;
+        // null for a count
+        private final long[] ids;
+        private final long count;
+
+        Entry(long version, long[] ids, long count) {
+            this.version = version;
+            this.ids = ids;
+            this.count = count;
+        }
+
+        long weight() {
+            return ids == null ? 1 : Math.max(ids.length, 1);
+        }
+    }
+
+    private static final class Key {
+
+        private final ShipFilter filter;
+        // null for a count
+        private final ShipOrder order;
+        private final int offset;
+        private final int limit;
+
+        Key(ShipFilter filter, ShipOrder order, int offset, int limit) {
+            this.filter = filter;
+            this.order = order;
+            this.offset = offset;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return offset == key.offset && limit == key.limit && filter.equals(key.filter) && order == key.order;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filter, order, offset, limit);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.space.service.importer;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Line formats of an import, the same as those of the export: one JSON object per line, or CSV
+ * with a header line naming the columns. Unknown fields and columns (id, rating) are ignored.
+ */
+public enum ImportFormat {
+
+    NDJSON {
+        @Override
+        Map<String, String> parse(String line, List<String> header) {
+            try {
+                return JSON_LINE.readValue(line);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Некорректная строка JSON");
+            }
+        }
+    },
+
+    CSV {
+        @Override
+        boolean hasHeader() {
+            return true;
+        }
+
+        @Override
+        Map<String, String> parse(String line, List<String> header) {
+            List<String> values = splitCsv(line);
+            if (values.size() != header.size()) {
+                throw new IllegalArgumentException("Ожидалось " + header.size() + " значений, найдено " + values.size());
+            }
+
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < values.size(); i++) {
+                // an empty value is a missing one
+                if (!values.get(i).isEmpty()) {
+                    fields.put(header.get(i), values.get(i));
+                }
+            }
+            return fields;
+        }
+    };
+
+    // scalar values of any JSON type are read as their text
+    private static final ObjectReader JSON_LINE = new ObjectMapper().readerFor(new TypeReference<Map<String, String>>() { });
+
+    /**
+     * The format named {@code name} in any case, or {@code null} if there is none.
+     */
+    public static ImportFormat of(String name) {
+        for (ImportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    boolean hasHeader() {
+        return false;
+    }
+
+    List<String> parseHeader(String line) {
+        return splitCsv(line);
+    }
+
+    /**
+     * The fields of one line.
+     *
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    abstract Map<String, String> parse(String line, List<String> header);
+
+    // RFC 4180 fields of one line; a quoted field may contain commas and doubled quotes, but no line breaks
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Незакрытые кавычки");
+        }
+        values.add(value.toString());
+
+        return values;
+    }
+}
@@ -0,0 +1,76 @@
+package com.space.service.importer;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of an import: how many data lines were read and imported, and why the others were not,
+ * by line number. Only the first {@code maxErrors} errors are kept; {@code failed} counts them all.
+ */
+public class ImportReport {
+
+    private long lines;
+    private long imported;
+    private long failed;
+    private final List<LineError> errors = new ArrayList<>();
+
+    @JsonIgnore
+    private final int maxErrors;
+
+    ImportReport(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    void addLines(long count) {
+        lines += count;
+    }
+
+    void addImported(long count) {
+        imported += count;
+    }
+
+    void addError(long line, String error) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new LineError(line, error));
+        }
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public List<LineError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    public static class LineError {
+
+        private final long line;
+        private final String error;
+
+        LineError(long line, String error) {
+            this.line = line;
+            this.error = error;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
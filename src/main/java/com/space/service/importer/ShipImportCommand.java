@@ -0,0 +1,57 @@
+package com.space.service.importer;
+
+import com.space.config.AppConfig;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Command line import against the database configured for the application:
+ * {@code ShipImportCommand <file> [ndjson|csv]}. Without a format it is taken from the file
+ * extension; {@code .gz} files are decompressed. Prints the errors and exits with 1 if a line failed.
+ */
+public final class ShipImportCommand {
+
+    private ShipImportCommand() { }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("usage: ShipImportCommand <file> [ndjson|csv]");
+            System.exit(2);
+        }
+
+        Path file = Paths.get(args[0]);
+        String fileName = file.getFileName().toString();
+        boolean gzipped = fileName.endsWith(".gz");
+        if (gzipped) {
+            fileName = fileName.substring(0, fileName.length() - ".gz".length());
+        }
+
+        ImportFormat format = ImportFormat.of(args.length == 2 ? args[1] : fileName.substring(fileName.lastIndexOf('.') + 1));
+        if (format == null) {
+            System.err.println("unknown format, expected ndjson or csv");
+            System.exit(2);
+        }
+
+        ImportReport report;
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(AppConfig.class);
+             InputStream in = gzipped ? new GZIPInputStream(Files.newInputStream(file)) : Files.newInputStream(file)) {
+            report = context.getBean(ShipImporter.class).importShips(in, format);
+        }
+
+        for (ImportReport.LineError error : report.getErrors()) {
+            System.err.println("line " + error.getLine() + ": " + error.getError());
+        }
+        if (report.getFailed() > report.getErrors().size()) {
+            System.err.println("... " + (report.getFailed() - report.getErrors().size()) + " more errors");
+        }
+        System.out.println("imported " + report.getImported() + " of " + report.getLines() + " ships");
+
+        System.exit(report.getFailed() == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,33 @@
+package com.space.service.importer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ShipImportConfig {
+
+    /**
+     * The threads of all imports: parsers shared by every import, and a writer per running import,
+     * which holds its thread until the import is done. At most {@code ship.import.max-concurrent}
+     * imports run at once, so the pool and its queue stay bounded. Shut down with the context.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor shipImportExecutor(
+            @Value("${ship.import.parser-threads:0}") int parserThreads,
+            @Value("${ship.import.max-concurrent:2}") int maxConcurrent,
+            @Value("${ship.import.queue-capacity:8}") int queueCapacity
+    ) {
+        int parsers = parserThreads > 0 ? parserThreads : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ship-import-");
+        executor.setCorePoolSize(parsers + maxConcurrent);
+        executor.setMaxPoolSize(parsers + maxConcurrent);
+        // per import: its writer, the parsed chunks it waits for and the one being enqueued
+        executor.setQueueCapacity(Math.max(maxConcurrent * (queueCapacity + 2), 1));
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
@@ -0,0 +1,213 @@
+package com.space.service.importer;
+
+import com.space.model.Ship;
+import com.space.model.ShipFields;
+import com.space.service.ShipService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports ships from a stream of lines in three stages. The calling thread reads chunks of lines
+ * and hands each to a pool of parsers; the parsed chunks wait in a bounded queue, in input order,
+ * for a single writer that inserts them in JDBC batches through {@link ShipService#saveShips}.
+ * A full queue stops the reader, so memory is bounded by the queue capacity, not the input size.
+ *
+ * Parsers and writers run on the shared {@code shipImportExecutor}; an import beyond
+ * {@code ship.import.max-concurrent} running ones is rejected instead of adding threads.
+ */
+@Service
+public class ShipImporter {
+
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    // marks the end of the input in the queue
+    private static final Future<ParsedChunk> END = CompletableFuture.completedFuture(null);
+
+    private final ShipService shipService;
+
+    private final AsyncTaskExecutor executor;
+
+    private final int chunkSize;
+    private final int queueCapacity;
+    private final int maxErrors;
+
+    private final Semaphore running;
+
+    public ShipImporter(ShipService shipService,
+                        @Qualifier("shipImportExecutor") AsyncTaskExecutor executor,
+                        @Value("${ship.import.chunk-size:1000}") int chunkSize,
+                        @Value("${ship.import.queue-capacity:8}") int queueCapacity,
+                        @Value("${ship.import.max-errors:1000}") int maxErrors,
+                        @Value("${ship.import.max-concurrent:2}") int maxConcurrent) {
+        this.shipService = shipService;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.queueCapacity = queueCapacity;
+        this.maxErrors = maxErrors;
+        this.running = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Imports every line of {@code in} (UTF-8). Blank lines are skipped; line numbers in the
+     * report count every line, the CSV header included.
+     *
+     * @throws RejectedExecutionException if {@code ship.import.max-concurrent} imports are running
+     */
+    public ImportReport importShips(InputStream in, ImportFormat format) throws IOException {
+        if (!running.tryAcquire()) {
+            throw new RejectedExecutionException("too many imports running");
+        }
+
+        ImportReport report = new ImportReport(maxErrors);
+        BlockingQueue<Future<ParsedChunk>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        Future<?> written = null;
+        try {
+            written = executor.submit(() -> {
+                write(queue, report);
+                return null;
+            });
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+            List<String> header = Collections.emptyList();
+            long lineNumber = 0;
+
+            if (format.hasHeader()) {
+                String line = reader.readLine();
+                lineNumber++;
+                if (line == null) {
+                    return report;
+                }
+                header = format.parseHeader(line);
+            }
+
+            List<String> lines = new ArrayList<>(chunkSize);
+            List<Long> lineNumbers = new ArrayList<>(chunkSize);
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                lines.add(line);
+                lineNumbers.add(lineNumber);
+
+                if (lines.size() == chunkSize) {
+                    enqueue(queue, executor.submit(parseTask(format, header, lines, lineNumbers)), written);
+                    lines = new ArrayList<>(chunkSize);
+                    lineNumbers = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!lines.isEmpty()) {
+                enqueue(queue, executor.submit(parseTask(format, header, lines, lineNumbers)), written);
+            }
+            enqueue(queue, END, written);
+
+            written.get();
+            return report;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("import interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("import failed", e.getCause());
+        } finally {
+            // the threads are shared, so only the tasks of this import are stopped
+            if (written != null) {
+                written.cancel(true);
+            }
+            for (Future<ParsedChunk> chunk : queue) {
+                chunk.cancel(true);
+            }
+            running.release();
+        }
+    }
+
+    // waits for room in the queue, unless the writer has stopped and will never make any
+    private void enqueue(BlockingQueue<Future<ParsedChunk>> queue, Future<ParsedChunk> chunk, Future<?> written)
+            throws InterruptedException, ExecutionException {
+        while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+            if (written.isDone()) {
+                written.get();
+                throw new IllegalStateException("import writer stopped early");
+            }
+        }
+    }
+
+    private void write(BlockingQueue<Future<ParsedChunk>> queue, ImportReport report) throws Exception {
+        for (Future<ParsedChunk> next = queue.take(); next != END; next = queue.take()) {
+            ParsedChunk chunk = next.get();
+
+            List<String> insertErrors = shipService.saveShips(chunk.ships);
+
+            // parse and insert errors are reported in line order
+            int error = 0;
+            for (int i = 0; i < chunk.ships.size(); i++) {
+                long line = chunk.shipLines.get(i);
+                for (; error < chunk.errorLines.size() && chunk.errorLines.get(error) < line; error++) {
+                    report.addError(chunk.errorLines.get(error), chunk.errors.get(error));
+                }
+                if (chunk.ships.get(i).getId() == null) {
+                    report.addError(line, "Не удалось сохранить корабль: " + insertErrors.get(i));
+                } else {
+                    report.addImported(1);
+                }
+            }
+            for (; error < chunk.errorLines.size(); error++) {
+                report.addError(chunk.errorLines.get(error), chunk.errors.get(error));
+            }
+            report.addLines(chunk.ships.size() + chunk.errors.size());
+        }
+    }
+
+    private static Callable<ParsedChunk> parseTask(ImportFormat format, List<String> header,
+                                                   List<String> lines, List<Long> lineNumbers) {
+        return () -> {
+            ParsedChunk chunk = new ParsedChunk(lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                try {
+                    chunk.ships.add(ShipFields.toNewShip(format.parse(lines.get(i), header)));
+                    chunk.shipLines.add(lineNumbers.get(i));
+                } catch (RuntimeException e) {
+                    chunk.errorLines.add(lineNumbers.get(i));
+                    chunk.errors.add(e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+                }
+            }
+            return chunk;
+        };
+    }
+
+    private static class ParsedChunk {
+
+        final List<Ship> ships;
+        final List<Long> shipLines;
+        final List<Long> errorLines = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+
+        ParsedChunk(int size) {
+            ships = new ArrayList<>(size);
+            shipLines = new ArrayList<>(size);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.space.service.index;
+
+import java.text.Normalizer;
+
+/**
+ * Text comparison of the in-memory structures, kept in line with the {@code utf8_general_ci}
+ * collation of the name and planet columns: a MySQL {@code LIKE} on them ignores case and
+ * accents, so texts and the searched substrings are both folded before they are compared.
+ */
+final class Collation {
+
+    private Collation() { }
+
+    /**
+     * {@code text} without accents and in upper case, or {@code null} for {@code null}.
+     */
+    static String fold(String text) {
+        if (text == null) {
+            return null;
+        }
+        if (!isAscii(text)) {
+            // é is e followed by a combining accent once decomposed
+            text = Normalizer.normalize(text, Normalizer.Form.NFD);
+        }
+
+        StringBuilder folded = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                folded.append(Character.toUpperCase(c));
+            }
+        }
+        return folded.toString();
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,213 @@
+package com.space.service.index;
+
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Ship counts per planet, ShipType and isUsed, kept up to date on every write. A count whose
+ * filter uses nothing but planet, shipType and isUsed is summed from these counters; planet is a
+ * substring filter, so every planet containing it, regardless of case and accents, contributes.
+ * The sums per searched planet are kept as well and follow every write, so a repeated planet count
+ * is a lookup; only the first one scans the planets.
+ *
+ * Enabled with {@code ship.counters.enabled=true}. Like {@link ShipIndex} it is filled from the
+ * database on first use and must then see every write, a ship being replaced only by a higher
+ * version of itself; {@link #invalidate} reloads it.
+ */
+@Component
+public class ShipCounters {
+
+    private static final ShipType[] SHIP_TYPES = ShipType.values();
+
+    // cells of a counter row: (ShipType ordinal, or the last type slot for other types) * 2 + isUsed
+    private static final int CELLS = (SHIP_TYPES.length + 1) * 2;
+
+    // searched planets whose sums are kept; each one costs a substring check per write
+    private static final int MAX_PLANET_QUERIES = 256;
+
+    private final boolean enabled;
+
+    private boolean loaded;
+
+    private final Map<Long, Group> groupsById = new HashMap<>();
+    private final Map<String, long[]> countsByPlanet = new HashMap<>();
+    // folded planet filter -> counts of the planets containing it, least recently searched first
+    private final Map<String, long[]> countsByPlanetQuery = new LinkedHashMap<String, long[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+            return size() > MAX_PLANET_QUERIES;
+        }
+    };
+    private final long[] totals = new long[CELLS];
+
+    public ShipCounters(@Value("${ship.counters.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether {@link #count} can answer {@code filter}.
+     */
+    public static boolean canCount(ShipFilter filter) {
+        return filter.getName() == null &&
+                filter.getAfter() == null && filter.getBefore() == null &&
+                filter.getMinSpeed() == null && filter.getMaxSpeed() == null &&
+                filter.getMinCrewSize() == null && filter.getMaxCrewSize() == null &&
+                filter.getMinRating() == null && filter.getMaxRating() == null;
+    }
+
+    public synchronized void loadIfNeeded(Supplier<? extends Collection<Ship>> source) {
+        if (!loaded) {
+            clear();
+            for (Ship ship : source.get()) {
+                add(ship.getId(), new Group(ship));
+            }
+            loaded = true;
+        }
+    }
+
+    public synchronized void invalidate() {
+        clear();
+        loaded = false;
+    }
+
+    public synchronized void put(Ship ship) {
+        Group current = groupsById.get(ship.getId());
+        // a concurrent write of the same ship committed later and got here first
+        if (current != null && current.version >= ship.getVersion()) {
+            return;
+        }
+        if (loaded) {
+            remove(ship.getId());
+            add(ship.getId(), new Group(ship));
+        }
+    }
+
+    public synchronized void remove(long id) {
+        Group group = groupsById.remove(id);
+        if (group != null) {
+            change(group, -1);
+        }
+    }
+
+    /**
+     * Number of ships matching {@code filter}, which must satisfy {@link #canCount}.
+     */
+    public synchronized long count(ShipFilter filter) {
+        int fromType = 0;
+        int toType = SHIP_TYPES.length;
+        if (filter.getShipType() != null) {
+            fromType = filter.getShipType().ordinal();
+            toType = fromType;
+        }
+        int fromUsed = filter.getIsUsed() == null || !filter.getIsUsed() ? 0 : 1;
+        int toUsed = filter.getIsUsed() == null ? 1 : fromUsed;
+
+        if (filter.getPlanet() == null) {
+            return sum(totals, fromType, toType, fromUsed, toUsed);
+        }
+
+        long[] counts = countsByPlanetQuery.computeIfAbsent(Collation.fold(filter.getPlanet()), this::countsContaining);
+        return sum(counts, fromType, toType, fromUsed, toUsed);
+    }
+
+    private long[] countsContaining(String query) {
+        long[] counts = new long[CELLS];
+        for (Map.Entry<String, long[]> entry : countsByPlanet.entrySet()) {
+            if (entry.getKey().contains(query)) {
+                for (int cell = 0; cell < CELLS; cell++) {
+                    counts[cell] += entry.getValue()[cell];
+                }
+            }
+        }
+        return counts;
+    }
+
+    private static long sum(long[] counts, int fromType, int toType, int fromUsed, int toUsed) {
+        long sum = 0;
+        for (int type = fromType; type <= toType; type++) {
+            for (int used = fromUsed; used <= toUsed; used++) {
+                sum += counts[type * 2 + used];
+            }
+        }
+        return sum;
+    }
+
+    private void clear() {
+        groupsById.clear();
+        countsByPlanet.clear();
+        countsByPlanetQuery.clear();
+        Arrays.fill(totals, 0);
+    }
+
+    private void add(long id, Group group) {
+        groupsById.put(id, group);
+        change(group, 1);
+    }
+
+    private void change(Group group, int delta) {
+        totals[group.cell] += delta;
+
+        if (group.planet != null) {
+            long[] counts = countsByPlanet.computeIfAbsent(group.planet, planet -> new long[CELLS]);
+            counts[group.cell] += delta;
+            if (delta < 0 && isEmpty(counts)) {
+                countsByPlanet.remove(group.planet);
+            }
+
+            for (Map.Entry<String, long[]> query : countsByPlanetQuery.entrySet()) {
+                if (group.planet.contains(query.getKey())) {
+                    query.getValue()[group.cell] += delta;
+                }
+            }
+        }
+    }
+
+    private static boolean isEmpty(long[] counts) {
+        for (long count : counts) {
+            if (count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int cell(int typeOrdinal, boolean isUsed) {
+        return typeOrdinal * 2 + (isUsed ? 1 : 0);
+    }
+
+    /**
+     * The counter cell and planet a ship is counted under, at the version they were read from.
+     */
+    private static final class Group {
+
+        private final String planet;
+        private final int cell;
+        private final long version;
+
+        Group(Ship ship) {
+            int typeOrdinal = SHIP_TYPES.length;
+            for (ShipType type : SHIP_TYPES) {
+                if (type.name().equals(ship.getShipType())) {
+                    typeOrdinal = type.ordinal();
+                }
+            }
+            this.planet = Collation.fold(ship.getPlanet());
+            this.cell = cell(typeOrdinal, ship.isUsed());
+            this.version = ship.getVersion();
+        }
+    }
+}
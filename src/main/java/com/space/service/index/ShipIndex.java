@@ -0,0 +1,581 @@
+package com.space.service.index;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.model.ShipDates;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory columnar copy of the filterable ship columns. Every ship occupies a slot; its columns
+ * are kept in primitive arrays, and one permutation of the live slots per {@link ShipOrder} gives
+ * the sorted order. Searches scan these arrays and return ids only, so just the ships of the
+ * requested page have to be loaded from the database.
+ *
+ * The low-cardinality columns shipType and isUsed are kept as compressed bitmaps of slots, one per
+ * value. A filter on them is an intersection of bitmaps, and a count that needs no other column is
+ * the cardinality of that intersection. name and planet have a {@link TrigramIndex} each, which
+ * narrows substring searches to the slots holding every trigram of the searched text. Like the
+ * database columns, they are searched without regard to case and accents (see {@link Collation}).
+ *
+ * Enabled with {@code ship.index.enabled=true}. The index is filled from the database on first use
+ * and must then see every write through {@link #put} and {@link #remove}; writes that bypass the
+ * application require {@link #invalidate}. Puts arrive after their transactions commit, not
+ * necessarily in commit order, so a ship is only replaced by a higher version of itself.
+ */
+@Component
+public class ShipIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final ShipType[] SHIP_TYPES = ShipType.values();
+
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private boolean loaded;
+
+    // slots in use, live or removed
+    private int size;
+    private int liveCount;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+    // name and planet folded by Collation, as they are only ever compared
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] planets = new String[INITIAL_CAPACITY];
+    // ShipType ordinal, -1 for a type outside ShipType
+    private byte[] shipTypes = new byte[INITIAL_CAPACITY];
+    // epoch days
+    private long[] prodDates = new long[INITIAL_CAPACITY];
+    private double[] speeds = new double[INITIAL_CAPACITY];
+    private int[] crewSizes = new int[INITIAL_CAPACITY];
+    private double[] ratings = new double[INITIAL_CAPACITY];
+
+    private RoaringBitmap live = new RoaringBitmap();
+    // live slots per ShipType ordinal and per isUsed state (index 1 for used ships)
+    private RoaringBitmap[] byShipType = newBitmaps(SHIP_TYPES.length);
+    private RoaringBitmap[] byIsUsed = newBitmaps(2);
+    private final TrigramIndex nameTrigrams = new TrigramIndex();
+    private final TrigramIndex planetTrigrams = new TrigramIndex();
+
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+
+    // live slots sorted by (sort key, id); an order is missing when it has to be rebuilt
+    private final Map<ShipOrder, int[]> sortedSlots = new EnumMap<>(ShipOrder.class);
+
+    public ShipIndex(@Value("${ship.index.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Fills the index from {@code source} unless it is already loaded. Writes wait until loading is done.
+     */
+    public void loadIfNeeded(Supplier<? extends Collection<Ship>> source) {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                clear();
+                for (Ship ship : source.get()) {
+                    write(ship);
+                }
+                loaded = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the content; the next search loads it again.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Ship ship) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                write(ship);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotsById.remove(id);
+            if (slot != null) {
+                live.remove(slot);
+                unindex(slot);
+                liveCount--;
+                sortedSlots.clear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the ships matching {@code filter} in {@code order}, skipping {@code offset} matches.
+     */
+    public List<Long> select(ShipFilter filter, ShipOrder order, int offset, int limit) {
+        int[] sorted = lockSortedSlots(order);
+        try {
+            Matcher matcher = new Matcher(filter);
+            List<Long> result = new ArrayList<>(Math.min(limit, liveCount));
+            int skipped = 0;
+
+            for (int i = 0; i < sorted.length && result.size() < limit; i++) {
+                int slot = sorted[i];
+                if (matcher.matches(slot)) {
+                    if (skipped < offset) {
+                        skipped++;
+                    } else {
+                        result.add(ids[slot]);
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keyset variant of {@link #select}: ids of matching ships strictly after {@code (lastKey, lastId)}.
+     */
+    public List<Long> selectAfter(ShipFilter filter, ShipOrder order, Object lastKey, Long lastId, int limit) {
+        if (lastId == null) {
+            return select(filter, order, 0, limit);
+        }
+
+        int[] sorted = lockSortedSlots(order);
+        try {
+            Matcher matcher = new Matcher(filter);
+            List<Long> result = new ArrayList<>(Math.min(limit, liveCount));
+
+            for (int i = firstAfter(sorted, order, lastKey, lastId); i < sorted.length && result.size() < limit; i++) {
+                int slot = sorted[i];
+                if (matcher.matches(slot)) {
+                    result.add(ids[slot]);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long count(ShipFilter filter) {
+        lock.readLock().lock();
+        try {
+            Matcher matcher = new Matcher(filter);
+            if (!matcher.hasColumnChecks()) {
+                return matcher.candidates.getLongCardinality();
+            }
+
+            long count = 0;
+            for (IntIterator slots = matcher.candidates.getIntIterator(); slots.hasNext(); ) {
+                if (matcher.matchesColumns(slots.next())) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void clear() {
+        size = 0;
+        liveCount = 0;
+        live.clear();
+        for (RoaringBitmap bitmap : byShipType) {
+            bitmap.clear();
+        }
+        for (RoaringBitmap bitmap : byIsUsed) {
+            bitmap.clear();
+        }
+        nameTrigrams.clear();
+        planetTrigrams.clear();
+        slotsById.clear();
+        sortedSlots.clear();
+    }
+
+    private void write(Ship ship) {
+        Integer slot = slotsById.get(ship.getId());
+        if (slot == null) {
+            slot = size++;
+            ensureCapacity(size);
+            slotsById.put(ship.getId(), slot);
+            live.add(slot);
+            liveCount++;
+        } else if (versions[slot] >= ship.getVersion()) {
+            // a concurrent write of the same ship committed later and got here first
+            return;
+        } else {
+            unindex(slot);
+        }
+
+        ids[slot] = ship.getId();
+        versions[slot] = ship.getVersion();
+        names[slot] = Collation.fold(ship.getName());
+        planets[slot] = Collation.fold(ship.getPlanet());
+        shipTypes[slot] = shipTypeOrdinal(ship.getShipType());
+        prodDates[slot] = ship.getProdDate() == null ? Long.MIN_VALUE : ship.getProdDate().toEpochDay();
+        speeds[slot] = ship.getSpeed();
+        crewSizes[slot] = ship.getCrewSize();
+        ratings[slot] = ship.getRating();
+
+        if (shipTypes[slot] >= 0) {
+            byShipType[shipTypes[slot]].add(slot);
+        }
+        byIsUsed[isUsedIndex(ship.isUsed())].add(slot);
+        nameTrigrams.add(slot, names[slot]);
+        planetTrigrams.add(slot, planets[slot]);
+
+        sortedSlots.clear();
+    }
+
+    private void unindex(int slot) {
+        if (shipTypes[slot] >= 0) {
+            byShipType[shipTypes[slot]].remove(slot);
+        }
+        for (RoaringBitmap bitmap : byIsUsed) {
+            bitmap.remove(slot);
+        }
+        nameTrigrams.remove(slot, names[slot]);
+        planetTrigrams.remove(slot, planets[slot]);
+    }
+
+    private static int isUsedIndex(boolean isUsed) {
+        return isUsed ? 1 : 0;
+    }
+
+    private static RoaringBitmap[] newBitmaps(int count) {
+        RoaringBitmap[] bitmaps = new RoaringBitmap[count];
+        for (int i = 0; i < count; i++) {
+            bitmaps[i] = new RoaringBitmap();
+        }
+        return bitmaps;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int length = Math.max(capacity, ids.length + (ids.length >> 1));
+
+        ids = Arrays.copyOf(ids, length);
+        versions = Arrays.copyOf(versions, length);
+        names = Arrays.copyOf(names, length);
+        planets = Arrays.copyOf(planets, length);
+        shipTypes = Arrays.copyOf(shipTypes, length);
+        prodDates = Arrays.copyOf(prodDates, length);
+        speeds = Arrays.copyOf(speeds, length);
+        crewSizes = Arrays.copyOf(crewSizes, length);
+        ratings = Arrays.copyOf(ratings, length);
+    }
+
+    private static byte shipTypeOrdinal(String shipType) {
+        for (ShipType type : SHIP_TYPES) {
+            if (type.name().equals(shipType)) {
+                return (byte) type.ordinal();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the live slots sorted in {@code order} with the read lock held, so the permutation
+     * cannot be compacted away while the caller scans it. The caller releases the read lock.
+     */
+    private int[] lockSortedSlots(ShipOrder order) {
+        lock.readLock().lock();
+        int[] sorted = sortedSlots.get(order);
+        if (sorted != null) {
+            return sorted;
+        }
+        lock.readLock().unlock();
+
+        lock.writeLock().lock();
+        try {
+            sorted = sortedSlots.computeIfAbsent(order, this::sort);
+            lock.readLock().lock();
+            return sorted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int[] sort(ShipOrder order) {
+        if (size - liveCount > liveCount) {
+            compact();
+        }
+
+        int[] sorted = live.toArray();
+
+        mergeSort(sorted, new int[sorted.length], 0, sorted.length, order);
+        return sorted;
+    }
+
+    /**
+     * Moves the live slots to the front once more than half of the slots belong to removed ships.
+     */
+    private void compact() {
+        RoaringBitmap[] compactedByShipType = newBitmaps(SHIP_TYPES.length);
+        RoaringBitmap[] compactedByIsUsed = newBitmaps(2);
+        nameTrigrams.clear();
+        planetTrigrams.clear();
+
+        int target = 0;
+        for (IntIterator slots = live.getIntIterator(); slots.hasNext(); target++) {
+            int slot = slots.next();
+            for (int i = 0; i < byIsUsed.length; i++) {
+                if (byIsUsed[i].contains(slot)) {
+                    compactedByIsUsed[i].add(target);
+                }
+            }
+            if (slot != target) {
+                ids[target] = ids[slot];
+                names[target] = names[slot];
+                planets[target] = planets[slot];
+                shipTypes[target] = shipTypes[slot];
+                prodDates[target] = prodDates[slot];
+                speeds[target] = speeds[slot];
+                crewSizes[target] = crewSizes[slot];
+                ratings[target] = ratings[slot];
+                slotsById.put(ids[target], target);
+            }
+            if (shipTypes[target] >= 0) {
+                compactedByShipType[shipTypes[target]].add(target);
+            }
+            nameTrigrams.add(target, names[target]);
+            planetTrigrams.add(target, planets[target]);
+        }
+
+        Arrays.fill(names, target, size, null);
+        Arrays.fill(planets, target, size, null);
+        live = RoaringBitmap.bitmapOfRange(0, target);
+        byShipType = compactedByShipType;
+        byIsUsed = compactedByIsUsed;
+        size = target;
+        sortedSlots.clear();
+    }
+
+    private void mergeSort(int[] slots, int[] buffer, int from, int to, ShipOrder order) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(slots, buffer, from, middle, order);
+        mergeSort(slots, buffer, middle, to, order);
+
+        if (compare(slots[middle - 1], slots[middle], order) <= 0) {
+            return;
+        }
+
+        System.arraycopy(slots, from, buffer, from, to - from);
+        for (int i = from, left = from, right = middle; i < to; i++) {
+            if (right >= to || (left < middle && compare(buffer[left], buffer[right], order) <= 0)) {
+                slots[i] = buffer[left++];
+            } else {
+                slots[i] = buffer[right++];
+            }
+        }
+    }
+
+    private int compare(int slot, int otherSlot, ShipOrder order) {
+        int result;
+        switch (order) {
+            case SPEED:
+                result = Double.compare(speeds[slot], speeds[otherSlot]);
+                break;
+            case DATE:
+                result = Long.compare(prodDates[slot], prodDates[otherSlot]);
+                break;
+            case RATING:
+                result = Double.compare(ratings[slot], ratings[otherSlot]);
+                break;
+            default:
+                result = 0;
+        }
+        return result != 0 ? result : Long.compare(ids[slot], ids[otherSlot]);
+    }
+
+    private int compareToKey(int slot, ShipOrder order, Object lastKey, long lastId) {
+        int result;
+        switch (order) {
+            case SPEED:
+            case RATING:
+                double key = ((Number) lastKey).doubleValue();
+                result = Double.compare(order == ShipOrder.SPEED ? speeds[slot] : ratings[slot], key);
+                break;
+            case DATE:
+                result = Long.compare(prodDates[slot], ((LocalDate) lastKey).toEpochDay());
+                break;
+            default:
+                result = 0;
+        }
+        return result != 0 ? result : Long.compare(ids[slot], lastId);
+    }
+
+    // position of the first sorted slot that comes strictly after (lastKey, lastId)
+    private int firstAfter(int[] sorted, ShipOrder order, Object lastKey, long lastId) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareToKey(sorted[middle], order, lastKey, lastId) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * A filter unboxed once per search; only supplied parameters are checked. shipType, isUsed and the
+     * trigrams of name and planet are resolved up front into the bitmap of candidate slots, the other
+     * parameters (and the exact substrings) per slot.
+     */
+    private final class Matcher {
+
+        private final RoaringBitmap candidates;
+
+        private final String name;
+        private final String planet;
+        private final boolean hasAfter, hasBefore;
+        private final long after, before;
+        private final boolean hasMinSpeed, hasMaxSpeed;
+        private final double minSpeed, maxSpeed;
+        private final boolean hasMinCrewSize, hasMaxCrewSize;
+        private final int minCrewSize, maxCrewSize;
+        private final boolean hasMinRating, hasMaxRating;
+        private final double minRating, maxRating;
+
+        Matcher(ShipFilter filter) {
+            name = Collation.fold(filter.getName());
+            planet = Collation.fold(filter.getPlanet());
+
+            candidates = candidates(filter);
+
+            hasAfter = filter.getAfter() != null;
+            after = hasAfter ? ShipDates.fromEpochMilli(filter.getAfter()).toEpochDay() : 0;
+            hasBefore = filter.getBefore() != null;
+            before = hasBefore ? ShipDates.ceilFromEpochMilli(filter.getBefore()).toEpochDay() : 0;
+
+            hasMinSpeed = filter.getMinSpeed() != null;
+            minSpeed = hasMinSpeed ? filter.getMinSpeed() : 0;
+            hasMaxSpeed = filter.getMaxSpeed() != null;
+            maxSpeed = hasMaxSpeed ? filter.getMaxSpeed() : 0;
+
+            hasMinCrewSize = filter.getMinCrewSize() != null;
+            minCrewSize = hasMinCrewSize ? filter.getMinCrewSize() : 0;
+            hasMaxCrewSize = filter.getMaxCrewSize() != null;
+            maxCrewSize = hasMaxCrewSize ? filter.getMaxCrewSize() : 0;
+
+            hasMinRating = filter.getMinRating() != null;
+            minRating = hasMinRating ? filter.getMinRating() : 0;
+            hasMaxRating = filter.getMaxRating() != null;
+            maxRating = hasMaxRating ? filter.getMaxRating() : 0;
+        }
+
+        // the shared bitmaps are only read here; an intersection yields a new bitmap
+        private RoaringBitmap candidates(ShipFilter filter) {
+            List<RoaringBitmap> bitmaps = new ArrayList<>(4);
+
+            if (filter.getShipType() != null) {
+                bitmaps.add(byShipType[filter.getShipType().ordinal()]);
+            }
+            if (filter.getIsUsed() != null) {
+                bitmaps.add(byIsUsed[isUsedIndex(filter.getIsUsed())]);
+            }
+            if (name != null) {
+                addIfNotNull(bitmaps, nameTrigrams.candidates(name));
+            }
+            if (planet != null) {
+                addIfNotNull(bitmaps, planetTrigrams.candidates(planet));
+            }
+
+            switch (bitmaps.size()) {
+                case 0:
+                    return live;
+                case 1:
+                    return bitmaps.get(0);
+                default:
+                    return FastAggregation.and(bitmaps.toArray(new RoaringBitmap[0]));
+            }
+        }
+
+        private void addIfNotNull(List<RoaringBitmap> bitmaps, RoaringBitmap bitmap) {
+            if (bitmap != null) {
+                bitmaps.add(bitmap);
+            }
+        }
+
+        boolean hasColumnChecks() {
+            return name != null || planet != null || hasAfter || hasBefore ||
+                    hasMinSpeed || hasMaxSpeed || hasMinCrewSize || hasMaxCrewSize || hasMinRating || hasMaxRating;
+        }
+
+        boolean matches(int slot) {
+            return candidates.contains(slot) && matchesColumns(slot);
+        }
+
+        boolean matchesColumns(int slot) {
+            return (!hasMinSpeed || speeds[slot] >= minSpeed) &&
+                    (!hasMaxSpeed || speeds[slot] <= maxSpeed) &&
+                    (!hasMinCrewSize || crewSizes[slot] >= minCrewSize) &&
+                    (!hasMaxCrewSize || crewSizes[slot] <= maxCrewSize) &&
+                    (!hasMinRating || ratings[slot] >= minRating) &&
+                    (!hasMaxRating || ratings[slot] <= maxRating) &&
+                    (!hasAfter || prodDates[slot] > after) &&
+                    (!hasBefore || prodDates[slot] < before) &&
+                    (name == null || (names[slot] != null && names[slot].contains(name))) &&
+                    (planet == null || (planets[slot] != null && planets[slot].contains(planet)));
+        }
+    }
+}
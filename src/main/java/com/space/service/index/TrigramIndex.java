@@ -0,0 +1,76 @@
+package com.space.service.index;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Slots of {@link ShipIndex} by every three-character substring of one text column. A substring
+ * query of at least three characters can only match slots that contain all of its trigrams, so the
+ * intersection of their bitmaps narrows the candidates before the substring itself is checked.
+ * Texts and queries are compared as given, so both have to be folded by {@link Collation} for a
+ * search that ignores case and accents, as {@link ShipIndex} does.
+ *
+ * Not thread-safe; {@link ShipIndex} guards it with its own lock.
+ */
+class TrigramIndex {
+
+    static final int GRAM_LENGTH = 3;
+
+    private final Map<Long, RoaringBitmap> slotsByTrigram = new HashMap<>();
+
+    void add(int slot, String text) {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            slotsByTrigram.computeIfAbsent(trigram(text, i), key -> new RoaringBitmap()).add(slot);
+        }
+    }
+
+    void remove(int slot, String text) {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            Long key = trigram(text, i);
+            RoaringBitmap slots = slotsByTrigram.get(key);
+            if (slots != null) {
+                slots.remove(slot);
+                if (slots.isEmpty()) {
+                    slotsByTrigram.remove(key);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        slotsByTrigram.clear();
+    }
+
+    /**
+     * Slots that may contain {@code query}, or {@code null} when the query is too short to narrow anything.
+     * The returned bitmap must not be modified.
+     */
+    RoaringBitmap candidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            return null;
+        }
+
+        int count = query.length() - GRAM_LENGTH + 1;
+        RoaringBitmap[] bitmaps = new RoaringBitmap[count];
+        for (int i = 0; i < count; i++) {
+            bitmaps[i] = slotsByTrigram.get(trigram(query, i));
+            if (bitmaps[i] == null) {
+                return new RoaringBitmap();
+            }
+        }
+        return count == 1 ? bitmaps[0] : FastAggregation.and(bitmaps);
+    }
+
+    private static long trigram(String text, int from) {
+        return ((long) text.charAt(from) << 32) | ((long) text.charAt(from + 1) << 16) | text.charAt(from + 2);
+    }
+}
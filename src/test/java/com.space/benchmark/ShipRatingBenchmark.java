@@ -0,0 +1,107 @@
+package com.space.benchmark;
+
+import com.space.model.Ship;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building ships the way a bulk load does: every ship goes through the speed, isUsed and
+ * prodDate setters and so through the rating computation. {@code legacyRating} repeats the former
+ * BigDecimal/Calendar computation on the same input for comparison.
+ *
+ * Run {@link #main} on the test classpath after {@code mvn test-compile}; the gc.alloc.rate.norm
+ * column is the allocation per batch of {@code batchSize} ships.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShipRatingBenchmark {
+
+    @Param("1000")
+    private int batchSize;
+
+    private LocalDate[] prodDates;
+    private Date[] legacyProdDates;
+    private double[] speeds;
+    private boolean[] used;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        prodDates = new LocalDate[batchSize];
+        legacyProdDates = new Date[batchSize];
+        speeds = new double[batchSize];
+        used = new boolean[batchSize];
+
+        for (int i = 0; i < batchSize; i++) {
+            int year = Ship.ProdDate.MIN + random.nextInt(Ship.ProdDate.MAX - Ship.ProdDate.MIN + 1);
+            prodDates[i] = LocalDate.of(year, 1 + random.nextInt(12), 1 + random.nextInt(28));
+            legacyProdDates[i] = new GregorianCalendar(year, prodDates[i].getMonthValue() - 1, prodDates[i].getDayOfMonth()).getTime();
+            speeds[i] = 0.01 + random.nextInt(9800) / 10000.0;
+            used[i] = random.nextBoolean();
+        }
+    }
+
+    @Benchmark
+    public void shipConstruction(Blackhole blackhole) {
+        for (int i = 0; i < batchSize; i++) {
+            blackhole.consume(new Ship("name", "planet", "MILITARY", prodDates[i], used[i], speeds[i], 100));
+        }
+    }
+
+    @Benchmark
+    public void legacyRating(Blackhole blackhole) {
+        for (int i = 0; i < batchSize; i++) {
+            // one year lookup per setter and one rounding for the speed, as the former Ship did
+            blackhole.consume(legacyYear(legacyProdDates[i]));
+            double speed = legacyRound(speeds[i], 2);
+            int prodYear = legacyYear(legacyProdDates[i]);
+            double koefficientOfUsed = used[i] ? Ship.USED : Ship.NEW;
+
+            blackhole.consume(legacyRound((80 * speed * koefficientOfUsed) / (Ship.ProdDate.MAX - prodYear + 1), 3));
+        }
+    }
+
+    private static double legacyRound(double value, int digits) {
+        return BigDecimal.valueOf(value).round(new MathContext(digits, RoundingMode.HALF_EVEN)).doubleValue();
+    }
+
+    private static int legacyYear(Date date) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        return calendar.get(Calendar.YEAR);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ShipRatingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
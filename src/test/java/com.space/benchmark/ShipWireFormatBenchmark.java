@@ -0,0 +1,131 @@
+package com.space.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.space.config.WebConfig;
+import com.space.model.Ship;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a list response of {@code pageSize} ships in JSON and in the Smile encoding of
+ * {@code application/x-ship-bin}, with the mappers configured as in {@link WebConfig}. Writing
+ * is what every list request pays; reading is what a client pays. {@link #main} also prints
+ * the size of one response in both encodings.
+ *
+ * Run {@link #main} on the test classpath after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShipWireFormatBenchmark {
+
+    private static final TypeReference<List<Map<String, Object>>> SHIP_MAPS = new TypeReference<List<Map<String, Object>>>() { };
+
+    private static final String[] PLANETS = {"Earth", "Mars", "Jupiter", "Saturn", "Neptune", "Venus", "Mercury", "Uranus"};
+    private static final String[] SHIP_TYPES = {"TRANSPORT", "MILITARY", "MERCHANT"};
+
+    @Param("1000")
+    private int pageSize;
+
+    private List<Ship> ships;
+
+    private ObjectMapper jsonMapper;
+    private ObjectMapper smileMapper;
+    private ObjectReader jsonReader;
+    private ObjectReader smileReader;
+
+    private byte[] json;
+    private byte[] smile;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        ships = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            int year = Ship.ProdDate.MIN + random.nextInt(Ship.ProdDate.MAX - Ship.ProdDate.MIN + 1);
+            ships.add(new Ship(i + 1, "Ship " + random.nextInt(100000),
+                    PLANETS[random.nextInt(PLANETS.length)],
+                    SHIP_TYPES[random.nextInt(SHIP_TYPES.length)],
+                    LocalDate.of(year, 1 + random.nextInt(12), 1 + random.nextInt(28)),
+                    random.nextBoolean(),
+                    0.01 + random.nextInt(98) / 100.0,
+                    1 + random.nextInt(9999)));
+        }
+
+        WebConfig webConfig = new WebConfig();
+        jsonMapper = webConfig.objectMapper();
+        smileMapper = webConfig.smileMapper();
+        jsonReader = jsonMapper.readerFor(SHIP_MAPS);
+        smileReader = smileMapper.readerFor(SHIP_MAPS);
+
+        json = jsonMapper.writeValueAsBytes(ships);
+        smile = smileMapper.writeValueAsBytes(ships);
+    }
+
+    @Benchmark
+    public int writeJson() throws IOException {
+        return write(jsonMapper);
+    }
+
+    @Benchmark
+    public int writeSmile() throws IOException {
+        return write(smileMapper);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> readJson() throws IOException {
+        return jsonReader.readValue(json);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> readSmile() throws IOException {
+        return smileReader.readValue(smile);
+    }
+
+    private int write(ObjectMapper mapper) throws IOException {
+        out.reset();
+        mapper.writeValue(out, ships);
+        return out.size();
+    }
+
+    public static void main(String[] args) throws Exception {
+        ShipWireFormatBenchmark sizes = new ShipWireFormatBenchmark();
+        sizes.pageSize = 1000;
+        sizes.setup();
+        System.out.println("bytes per response of " + sizes.pageSize + " ships: json " + sizes.json.length
+                + ", smile " + sizes.smile.length);
+
+        new Runner(new OptionsBuilder()
+                .include(ShipWireFormatBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
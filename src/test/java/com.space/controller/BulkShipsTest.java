@@ -0,0 +1,213 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@TestPropertySource(properties = "ship.batch.chunk-size=3")
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class BulkShipsTest {
+
+    private static final String FILTER = "shipType=TRANSPORT&isUsed=true";
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void deleteByFilterTest() throws Exception {
+        int matching = count(FILTER);
+        int all = count("");
+        assertTrue("Фильтр теста должен находить корабли.", matching > 0);
+
+        String deleted = mockMvc.perform(delete("/rest/ships?" + FILTER))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Должно возвращаться количество удаленных кораблей.", String.valueOf(matching), deleted);
+        assertEquals("Корабли по фильтру должны быть удалены.", 0, count(FILTER));
+        assertEquals("Остальные корабли должны остаться.", all - matching, count(""));
+    }
+
+    //test2
+    @Test
+    public void patchWithoutRatingTest() throws Exception {
+        int matching = count(FILTER);
+
+        String patched = mockMvc.perform(patch("/rest/ships?" + FILTER)
+                .content("{\"planet\":\"Bulk\",\"crewSize\":\"7\"}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Должно возвращаться количество измененных кораблей.", String.valueOf(matching), patched);
+        assertEquals("Изменения должны примениться ко всем кораблям по фильтру.", matching,
+                count(FILTER + "&planet=Bulk&minCrewSize=7&maxCrewSize=7"));
+    }
+
+    //test3
+    @Test
+    public void patchRecomputesRatingTest() throws Exception {
+        int matching = count(FILTER);
+
+        String patched = mockMvc.perform(patch("/rest/ships?" + FILTER)
+                .content("{\"speed\":\"0.5\"}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Должно возвращаться количество измененных кораблей.", String.valueOf(matching), patched);
+
+        JsonNode ships = mapper.readTree(mockMvc.perform(get("/rest/ships?pageSize=100&" + FILTER))
+                .andReturn().getResponse().getContentAsString());
+        assertEquals("Все корабли по фильтру должны найтись.", matching, ships.size());
+
+        for (JsonNode ship : ships) {
+            // the same change by id must give the same rating
+            JsonNode single = mapper.readTree(mockMvc.perform(post("/rest/ships/" + ship.get("id").asLong())
+                    .content("{\"speed\":\"0.5\"}")
+                    .contentType(MediaType.APPLICATION_JSON_UTF8))
+                    .andReturn().getResponse().getContentAsString());
+
+            assertEquals("Скорость должна измениться.", 0.5, ship.get("speed").asDouble());
+            assertEquals("Рейтинг должен пересчитываться как при обновлении по id.",
+                    single.get("rating").asDouble(), ship.get("rating").asDouble());
+        }
+    }
+
+    //test4
+    @Test
+    public void patchInvalidValueTest() throws Exception {
+        int all = count("");
+
+        mockMvc.perform(patch("/rest/ships?" + FILTER)
+                .content("{\"crewSize\":\"100000\"}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(patch("/rest/ships?" + FILTER)
+                .content("{}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+
+        assertEquals("Некорректный запрос не должен ничего менять.", all, count(""));
+    }
+
+    //test5
+    @Test
+    public void deleteWithoutFilterTest() throws Exception {
+        int all = count("");
+
+        mockMvc.perform(delete("/rest/ships"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(delete("/rest/ships").param("name", " "))
+                .andExpect(status().isBadRequest());
+        assertEquals("Удаление без фильтра не должно ничего удалять.", all, count(""));
+
+        String deleted = mockMvc.perform(delete("/rest/ships?all=true"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("С all=true должны удаляться все корабли.", String.valueOf(all), deleted);
+        assertEquals("С all=true должны удаляться все корабли.", 0, count(""));
+    }
+
+    //test6
+    @Test
+    public void patchIgnoresNullValuesTest() throws Exception {
+        String before = mockMvc.perform(get("/rest/ships?pageSize=40&" + FILTER))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(patch("/rest/ships?" + FILTER)
+                .content("{\"speed\":null,\"name\":null,\"crewSize\":null,\"prodDate\":null}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+
+        String patched = mockMvc.perform(patch("/rest/ships?" + FILTER)
+                .content("{\"planet\":\"Pluto\",\"speed\":null}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Должны изменяться все корабли по фильтру.", String.valueOf(count(FILTER)), patched);
+
+        JsonNode expected = mapper.readTree(before);
+        JsonNode actual = mapper.readTree(mockMvc.perform(get("/rest/ships?pageSize=40&" + FILTER))
+                .andReturn().getResponse().getContentAsString());
+        for (int i = 0; i < expected.size(); i++) {
+            ((ObjectNode) expected.get(i)).put("planet", "Pluto");
+        }
+        assertEquals("Поля со значением null не должны изменяться.", expected, actual);
+    }
+
+    //test7
+    @Test
+    public void patchWithoutFilterTest() throws Exception {
+        String before = mockMvc.perform(get("/rest/ships?pageSize=40"))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(patch("/rest/ships")
+                .content("{\"planet\":\"Pluto\"}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/rest/ships").param("name", " ")
+                .content("{\"planet\":\"Pluto\"}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+
+        String after = mockMvc.perform(get("/rest/ships?pageSize=40"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Изменение без фильтра не должно ничего менять.", mapper.readTree(before), mapper.readTree(after));
+
+        String patched = mockMvc.perform(patch("/rest/ships?all=true")
+                .content("{\"planet\":\"Pluto\"}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("С all=true должны изменяться все корабли.", String.valueOf(count("")), patched);
+        assertEquals("С all=true должны изменяться все корабли.", count(""), count("planet=Pluto"));
+    }
+
+    private int count(String filter) throws Exception {
+        return Integer.parseInt(mockMvc.perform(get("/rest/ships/count?" + filter))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+}
@@ -0,0 +1,126 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.sql.DataSource;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@TestPropertySource(properties = "ship.batch.chunk-size=2")
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class CreateShipBatchTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+    private JdbcTemplate jdbcTemplate;
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void createBatchReportsEveryItemTest() throws Exception {
+        String content = "[" + TestsHelper.NORMAL_JSON + "," + TestsHelper.EMPTY_NAME_JSON + ","
+                + TestsHelper.NORMAL_JSON + "," + TestsHelper.NORMAL_JSON + "]";
+
+        String response = mockMvc.perform(post("/rest/ships/batch")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(content))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode results = mapper.readTree(response);
+        assertEquals("Должен возвращаться результат для каждого корабля.", 4, results.size());
+
+        int[] statuses = {200, 400, 200, 200};
+        for (int i = 0; i < statuses.length; i++) {
+            assertEquals("Результаты должны идти в порядке запроса.", i, results.get(i).get("index").asInt());
+            assertEquals("Неверный статус корабля " + i + ".", statuses[i], results.get(i).get("status").asInt());
+        }
+        assertTrue("У невалидного корабля не должно быть id.", results.get(1).get("id").isNull());
+        assertEquals("Id должны выдаваться по порядку.", 41L, results.get(0).get("id").asLong());
+        assertEquals("Id должны выдаваться по порядку.", 42L, results.get(2).get("id").asLong());
+        assertEquals("Id должны выдаваться по порядку.", 43L, results.get(3).get("id").asLong());
+    }
+
+    //test2
+    @Test
+    public void createBatchShipsAreStoredTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/batch")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("[" + TestsHelper.NORMAL_JSON + "," + TestsHelper.NORMAL_JSON + "," + TestsHelper.NORMAL_JSON + "]"))
+                .andExpect(status().isOk());
+
+        String count = mockMvc.perform(get("/rest/ships/count"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Добавленные корабли должны учитываться в количестве.", "43", count);
+
+        String ship = mockMvc.perform(get("/rest/ships/43"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Рейтинг добавленного корабля должен сохраняться.", 12.8, mapper.readTree(ship).get("rating").asDouble());
+    }
+
+    //test3
+    @Test
+    public void createBatchReportsWhyInsertFailedTest() throws Exception {
+        // test.sql creates the table again for the next test
+        jdbcTemplate.execute("ALTER TABLE ship ADD CONSTRAINT no_test_names CHECK (name <> '123456789')");
+
+        String content = mockMvc.perform(post("/rest/ships/batch")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("[" + TestsHelper.NORMAL_JSON + "]"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode result = mapper.readTree(content).get(0);
+        assertEquals("Корабль, который не удалось вставить, должен получить статус 500.", 500, result.get("status").asInt());
+        assertTrue("Ошибка должна содержать причину отказа базы данных.",
+                result.get("error").asText().toUpperCase().contains("NO_TEST_NAMES"));
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+
+    @Autowired
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+}
@@ -0,0 +1,134 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ExportShipsTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void exportNdjsonTest() throws Exception {
+        String body = mockMvc.perform(get("/rest/ships/export?format=ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals("Должна выгружаться строка на каждый корабль.", 40, lines.length);
+
+        JsonNode expected = mapper.readTree(mockMvc.perform(get("/rest/ships?pageSize=40"))
+                .andReturn().getResponse().getContentAsString());
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals("Строка выгрузки должна совпадать с кораблем из списка.", expected.get(i), mapper.readTree(lines[i]));
+        }
+    }
+
+    //test2
+    @Test
+    public void exportCsvWithFilterTest() throws Exception {
+        String body = mockMvc.perform(get("/rest/ships/export?format=csv&planet=ur&order=SPEED"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\r\n");
+        assertEquals("Первая строка должна содержать названия колонок.",
+                "id,name,planet,shipType,prodDate,isUsed,speed,crewSize,rating", lines[0]);
+
+        String count = mockMvc.perform(get("/rest/ships/count?planet=ur"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Должны выгружаться только корабли по фильтру.", Integer.parseInt(count), lines.length - 1);
+
+        for (int i = 2; i < lines.length; i++) {
+            assertEquals("Корабли должны идти в порядке сортировки.", true,
+                    Double.parseDouble(lines[i - 1].split(",")[6]) <= Double.parseDouble(lines[i].split(",")[6]));
+        }
+    }
+
+    //test3
+    @Test
+    public void exportGzipTest() throws Exception {
+        String plain = mockMvc.perform(get("/rest/ships/export?format=csv"))
+                .andReturn().getResponse().getContentAsString();
+
+        byte[] gzipped = mockMvc.perform(get("/rest/ships/export?format=csv")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String unzipped = StreamUtils.copyToString(new GZIPInputStream(new ByteArrayInputStream(gzipped)), StandardCharsets.UTF_8);
+        assertEquals("Сжатая выгрузка должна совпадать с обычной.", plain, unzipped);
+    }
+
+    //test4
+    @Test
+    public void exportUnknownFormatTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/export?format=xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test5
+    @Test
+    public void exportGzipOnlyWhenAcceptedTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/export?format=csv")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+
+        mockMvc.perform(get("/rest/ships/export?format=csv")
+                .header(HttpHeaders.ACCEPT_ENCODING, "br, *;q=0.5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+
+        mockMvc.perform(get("/rest/ships/export?format=csv")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, *"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+}
@@ -0,0 +1,132 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class GetAllByCursorTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void getAllByCursorWithoutFiltersReturnsAllShipsInIdOrder() throws Exception {
+        List<ShipInfoTest> actual = readAllPages("/rest/ships?pageSize=7");
+        List<ShipInfoTest> expected = testsHelper.getAllShips();
+
+        assertTrue("Постраничный обход по курсору должен вернуть все корабли по порядку id.", actual.equals(expected));
+    }
+
+    //test2
+    @Test
+    public void getAllByCursorWithOrderSpeed() throws Exception {
+        List<ShipInfoTest> actual = readAllPages("/rest/ships?order=SPEED&pageSize=4");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByOrder(ShipOrder.SPEED,
+                testsHelper.getAllShips());
+
+        assertTrue("Постраничный обход по курсору с order=SPEED вернул неправильный результат.", actual.equals(expected));
+    }
+
+    //test3
+    @Test
+    public void getAllByCursorWithFiltersAndOrderDate() throws Exception {
+        List<ShipInfoTest> actual = readAllPages("/rest/ships?shipType=MILITARY&isUsed=false&order=DATE&pageSize=2");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByShipType(ShipType.MILITARY,
+                testsHelper.getShipInfosByIsUsed(false,
+                        testsHelper.getAllShips()));
+        expected.sort(Comparator.comparing(ship -> ship.prodDate));
+
+        assertTrue("Постраничный обход по курсору с фильтрами и order=DATE вернул неправильный результат.", actual.equals(expected));
+    }
+
+    //test4
+    @Test
+    public void getAllByCursorWithForeignCursorIsBadRequest() throws Exception {
+        MvcResult first = mockMvc.perform(get("/rest/ships?order=SPEED&cursor=")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn();
+        String cursor = first.getResponse().getHeader(RestShipController.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/rest/ships?order=RATING&cursor=" + cursor)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/rest/ships?cursor=not-a-cursor")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test5
+    @Test
+    public void getAllByCursorWithOrderRating() throws Exception {
+        List<ShipInfoTest> actual = readAllPages("/rest/ships?order=RATING&pageSize=5");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByOrder(ShipOrder.RATING,
+                testsHelper.getAllShips());
+
+        assertTrue("Постраничный обход по курсору с order=RATING вернул неправильный результат.", actual.equals(expected));
+    }
+
+    private List<ShipInfoTest> readAllPages(String url) throws Exception {
+        List<ShipInfoTest> ships = new ArrayList<>();
+        String cursor = "";
+
+        while (cursor != null) {
+            MvcResult result = mockMvc.perform(get(url + "&cursor=" + cursor)
+                    .accept(MediaType.APPLICATION_JSON_UTF8))
+                    .andExpect(status().isOk())
+                    .andReturn();
+
+            ships.addAll(mapper.readValue(result.getResponse().getContentAsString(), typeReference));
+            cursor = result.getResponse().getHeader(RestShipController.NEXT_CURSOR_HEADER);
+        }
+        return ships;
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+}
@@ -0,0 +1,256 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import com.space.service.index.ShipIndex;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@TestPropertySource(properties = "ship.index.enabled=true")
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class GetAllFromIndexTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+    private ShipIndex shipIndex;
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        // test.sql has just rewritten the table behind the application's back
+        shipIndex.invalidate();
+    }
+
+    //test1
+    @Test
+    public void getAllWithFiltersAndOrderSpeedFromIndex() throws Exception {
+        List<ShipInfoTest> actual = readList("/rest/ships?planet=ur&isUsed=true&maxCrewSize=2000&order=SPEED&pageSize=100");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByOrder(ShipOrder.SPEED,
+                testsHelper.getShipInfosByMaxCrewSize(2000,
+                        testsHelper.getShipInfosByIsUsed(true,
+                                testsHelper.getShipInfosByPlanet("ur",
+                                        testsHelper.getAllShips()))));
+
+        assertTrue("Поиск по индексу вернул неправильный результат.", actual.equals(expected));
+    }
+
+    //test2
+    @Test
+    public void getAllWithPagingFromIndex() throws Exception {
+        List<ShipInfoTest> actual = readList("/rest/ships?shipType=MERCHANT&minSpeed=0.3&pageNumber=1&pageSize=3");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(1, 3,
+                testsHelper.getShipInfosByMinSpeed(0.3,
+                        testsHelper.getShipInfosByShipType(ShipType.MERCHANT,
+                                testsHelper.getAllShips())));
+
+        assertTrue("Постраничный поиск по индексу вернул неправильный результат.", actual.equals(expected));
+    }
+
+    //test3
+    @Test
+    public void getAllByCursorFromIndex() throws Exception {
+        List<ShipInfoTest> actual = new ArrayList<>();
+        String cursor = "";
+
+        while (cursor != null) {
+            MvcResult result = perform("/rest/ships?order=SPEED&pageSize=6&cursor=" + cursor).andReturn();
+            actual.addAll(mapper.readValue(result.getResponse().getContentAsString(), typeReference));
+            cursor = result.getResponse().getHeader(RestShipController.NEXT_CURSOR_HEADER);
+        }
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByOrder(ShipOrder.SPEED, testsHelper.getAllShips());
+
+        assertTrue("Обход по курсору через индекс вернул неправильный результат.", actual.equals(expected));
+    }
+
+    //test4
+    @Test
+    public void countFromIndex() throws Exception {
+        int expected = testsHelper.getShipInfosByIsUsed(false,
+                testsHelper.getShipInfosByBefore(32503672800000L,
+                        testsHelper.getAllShips())).size();
+
+        perform("/rest/ships/count?isUsed=false&before=32503672800000")
+                .andExpect(content().string(String.valueOf(expected)));
+    }
+
+    //test5
+    @Test
+    public void indexFollowsCreateAndDelete() throws Exception {
+        int total = testsHelper.getAllShips().size();
+        perform("/rest/ships/count").andExpect(content().string(String.valueOf(total)));
+
+        mockMvc.perform(post("/rest/ships/")
+                .content(TestsHelper.IS_USED_FALSE_JSON)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        perform("/rest/ships/count").andExpect(content().string(String.valueOf(total + 1)));
+
+        mockMvc.perform(delete("/rest/ships/1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        perform("/rest/ships/count").andExpect(content().string(String.valueOf(total)));
+
+        List<ShipInfoTest> actual = readList("/rest/ships?pageSize=100");
+        assertTrue("Удаленный корабль остался в индексе.", actual.stream().noneMatch(ship -> ship.id == 1));
+    }
+
+    //test6
+    @Test
+    public void countAndListByShipTypeAndIsUsedFromBitmaps() throws Exception {
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByIsUsed(true,
+                testsHelper.getShipInfosByShipType(ShipType.TRANSPORT,
+                        testsHelper.getAllShips()));
+
+        perform("/rest/ships/count?shipType=TRANSPORT&isUsed=true")
+                .andExpect(content().string(String.valueOf(expected.size())));
+
+        List<ShipInfoTest> actual = readList("/rest/ships?shipType=TRANSPORT&isUsed=true&pageSize=100");
+        assertTrue("Поиск по shipType и isUsed через индекс вернул неправильный результат.", actual.equals(expected));
+    }
+
+    //test7
+    @Test
+    public void getAllByNameAndPlanetFromTrigrams() throws Exception {
+        List<ShipInfoTest> actual = readList("/rest/ships?name=Ex&planet=ur&pageSize=100");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPlanet("ur",
+                testsHelper.getShipInfosByName("Ex",
+                        testsHelper.getAllShips()));
+        assertTrue("Поиск по короткой подстроке через индекс вернул неправильный результат.", actual.equals(expected));
+
+        actual = readList("/rest/ships?name=plor&pageSize=100");
+        expected = testsHelper.getShipInfosByName("plor", testsHelper.getAllShips());
+        assertTrue("Поиск по подстроке через индекс вернул неправильный результат.", actual.equals(expected));
+    }
+
+    //test8
+    @Test
+    public void trigramsFollowUpdate() throws Exception {
+        mockMvc.perform(post("/rest/ships/6")
+                .content("{\"name\":\"Voyager\"}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        List<ShipInfoTest> byOldName = readList("/rest/ships?name=Explorer&pageSize=100");
+        List<ShipInfoTest> byNewName = readList("/rest/ships?name=oyage&pageSize=100");
+
+        assertTrue("Старое имя осталось в индексе.", byOldName.stream().noneMatch(ship -> ship.id == 6));
+        assertTrue("Новое имя не попало в индекс.", byNewName.stream().anyMatch(ship -> ship.id == 6));
+    }
+
+    //test9
+    @Test
+    public void getAllByNameAndPlanetIgnoringCaseFromIndex() throws Exception {
+        List<ShipInfoTest> actual = readList("/rest/ships?name=eX&planet=UR&pageSize=100");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPlanet("ur",
+                testsHelper.getShipInfosByName("ex",
+                        testsHelper.getAllShips()));
+
+        assertTrue("Поиск через индекс должен не учитывать регистр.", !expected.isEmpty() && actual.equals(expected));
+        perform("/rest/ships/count?name=eX&planet=UR")
+                .andExpect(content().string(String.valueOf(expected.size())));
+    }
+
+    //test10
+    @Test
+    public void getAllByNameAndPlanetIgnoringCaseFromTrigrams() throws Exception {
+        List<ShipInfoTest> actual = readList("/rest/ships?name=ORIon&pageSize=100");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByName("orion", testsHelper.getAllShips());
+        assertTrue("Поиск по триграммам должен не учитывать регистр.", !expected.isEmpty() && actual.equals(expected));
+
+        actual = readList("/rest/ships?planet=sATURn&isUsed=true&pageSize=100");
+        expected = testsHelper.getShipInfosByIsUsed(true,
+                testsHelper.getShipInfosByPlanet("saturn", testsHelper.getAllShips()));
+        assertTrue("Поиск по триграммам должен не учитывать регистр.", !expected.isEmpty() && actual.equals(expected));
+    }
+
+    //test11
+    @Test
+    public void getAllWithWildcardCharactersInName() throws Exception {
+        String created = mockMvc.perform(post("/rest/ships/")
+                .content(TestsHelper.NORMAL_JSON.replace("123456789", "50%_off!"))
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = mapper.readTree(created).get("id").asLong();
+
+        for (String name : new String[]{"%", "_", "0%_", "!"}) {
+            List<ShipInfoTest> actual = mapper.readValue(mockMvc.perform(get("/rest/ships").param("name", name)
+                    .accept(MediaType.APPLICATION_JSON_UTF8))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(), typeReference);
+            assertTrue("Символы % и _ в name должны искаться как есть: " + name,
+                    actual.size() == 1 && actual.get(0).id == id);
+
+            mockMvc.perform(get("/rest/ships/count").param("name", name))
+                    .andExpect(content().string("1"));
+        }
+
+        List<ShipInfoTest> actual = mapper.readValue(mockMvc.perform(get("/rest/ships").param("planet", "a_s")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), typeReference);
+        assertTrue("Символ _ в planet не должен совпадать с любым символом.", actual.isEmpty());
+    }
+
+    private ResultActions perform(String url) throws Exception {
+        return mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+    }
+
+    private List<ShipInfoTest> readList(String url) throws Exception {
+        String contentAsString = perform(url).andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, typeReference);
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+
+    @Autowired
+    public void setShipIndex(ShipIndex shipIndex) {
+        this.shipIndex = shipIndex;
+    }
+}
@@ -28,6 +28,8 @@ import java.util.List;
 
 import static org.springframework.test.util.AssertionErrors.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -244,6 +246,48 @@ public class GetAllTest {
         assertTrue("Возвращается не правильный результат при запросе GET /rest/ships с параметрами after, before, minCrewSize и maxCrewSize.", actual.equals(expected));
     }
 
+    //test11
+    @Test
+    public void getAllWithWildcardCharactersInName() throws Exception {
+        String created = mockMvc.perform(post("/rest/ships/")
+                .content(TestsHelper.NORMAL_JSON.replace("123456789", "50%_off!"))
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = mapper.readTree(created).get("id").asLong();
+
+        for (String name : new String[]{"%", "_", "0%_", "!"}) {
+            List<ShipInfoTest> actual = mapper.readValue(mockMvc.perform(get("/rest/ships").param("name", name)
+                    .accept(MediaType.APPLICATION_JSON_UTF8))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(), typeReference);
+            assertTrue("Символы % и _ в name должны искаться как есть: " + name,
+                    actual.size() == 1 && actual.get(0).id == id);
+
+            mockMvc.perform(get("/rest/ships/count").param("name", name))
+                    .andExpect(content().string("1"));
+        }
+
+        List<ShipInfoTest> actual = mapper.readValue(mockMvc.perform(get("/rest/ships").param("planet", "a_s")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), typeReference);
+        assertTrue("Символ _ в planet не должен совпадать с любым символом.", actual.isEmpty());
+    }
+
+    //test12
+    @Test
+    public void getAllWithMalformedFilterValues() throws Exception {
+        for (String query : new String[]{"shipType=SPACESHIP", "minSpeed=fast", "after=yesterday", "isUsed=maybe"}) {
+            for (String url : new String[]{"/rest/ships?", "/rest/ships/count?", "/rest/ships?stream=true&", "/rest/ships?cursor=&", "/rest/ships/export?"}) {
+                mockMvc.perform(get(url + query)
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                        .andExpect(status().isBadRequest());
+            }
+        }
+    }
+
     @Autowired
     public void setContext(WebApplicationContext context) {
         this.context = context;
@@ -0,0 +1,175 @@
+package com.space.controller;
+
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import com.space.service.index.ShipCounters;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@TestPropertySource(properties = {"ship.counters.enabled=true", "hibernate.cache.enabled=true", "hibernate.cache.statistics=true"})
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class GetCountFromCountersTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+    private ShipCounters shipCounters;
+    private Statistics statistics;
+
+    private TestsHelper testsHelper = new TestsHelper();
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        // test.sql has just rewritten the table behind the application's back
+        shipCounters.invalidate();
+    }
+
+    //test1
+    @Test
+    public void countsByPlanetShipTypeAndIsUsedComeFromCounters() throws Exception {
+        List<ShipInfoTest> all = testsHelper.getAllShips();
+        assertCount("/rest/ships/count", all.size());
+
+        statistics.clear();
+        assertCount("/rest/ships/count?shipType=MILITARY",
+                testsHelper.getShipInfosByShipType(ShipType.MILITARY, all).size());
+        assertCount("/rest/ships/count?isUsed=false",
+                testsHelper.getShipInfosByIsUsed(false, all).size());
+        assertCount("/rest/ships/count?shipType=TRANSPORT&isUsed=true",
+                testsHelper.getShipInfosByIsUsed(true, testsHelper.getShipInfosByShipType(ShipType.TRANSPORT, all)).size());
+        assertCount("/rest/ships/count?planet=ur&isUsed=true",
+                testsHelper.getShipInfosByIsUsed(true, testsHelper.getShipInfosByPlanet("ur", all)).size());
+
+        assertEquals("Счетчики не должны обращаться к базе данных.", 0L, statistics.getPrepareStatementCount());
+    }
+
+    //test2
+    @Test
+    public void otherFiltersFallBackToDatabase() throws Exception {
+        List<ShipInfoTest> all = testsHelper.getAllShips();
+
+        assertCount("/rest/ships/count?shipType=MERCHANT&minSpeed=0.5",
+                testsHelper.getShipInfosByMinSpeed(0.5, testsHelper.getShipInfosByShipType(ShipType.MERCHANT, all)).size());
+    }
+
+    //test3
+    @Test
+    public void countersFollowCreateUpdateAndDelete() throws Exception {
+        List<ShipInfoTest> all = testsHelper.getAllShips();
+        int military = testsHelper.getShipInfosByShipType(ShipType.MILITARY, all).size();
+        int earth = testsHelper.getShipInfosByPlanet("Earth", all).size();
+        assertCount("/rest/ships/count?shipType=MILITARY", military);
+
+        // IS_USED_FALSE_JSON is a MILITARY ship from Earth
+        mockMvc.perform(post("/rest/ships/")
+                .content(TestsHelper.IS_USED_FALSE_JSON)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        assertCount("/rest/ships/count?shipType=MILITARY", military + 1);
+        assertCount("/rest/ships/count?planet=Earth", earth + 1);
+
+        ShipInfoTest first = testsHelper.getShipInfosById(1);
+        mockMvc.perform(post("/rest/ships/1")
+                .content("{\"planet\":\"Pluto\",\"shipType\":\"MILITARY\"}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        int militaryAfterUpdate = first.shipType == ShipType.MILITARY ? military + 1 : military + 2;
+        assertCount("/rest/ships/count?shipType=MILITARY", militaryAfterUpdate);
+        assertCount("/rest/ships/count?planet=Pluto", 1);
+
+        mockMvc.perform(delete("/rest/ships/1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        assertCount("/rest/ships/count?shipType=MILITARY", militaryAfterUpdate - 1);
+        assertCount("/rest/ships/count?planet=Pluto", 0);
+        assertCount("/rest/ships/count", all.size());
+    }
+
+    //test4
+    @Test
+    public void planetCountsIgnoreCaseAndFollowWrites() throws Exception {
+        List<ShipInfoTest> all = testsHelper.getAllShips();
+        int earth = testsHelper.getShipInfosByPlanet("earth", all).size();
+        assertCount("/rest/ships/count", all.size());
+
+        statistics.clear();
+        assertCount("/rest/ships/count?planet=eARth", earth);
+        assertCount("/rest/ships/count?planet=EARTH&shipType=MILITARY",
+                testsHelper.getShipInfosByShipType(ShipType.MILITARY, testsHelper.getShipInfosByPlanet("earth", all)).size());
+        assertEquals("Счетчики не должны обращаться к базе данных.", 0L, statistics.getPrepareStatementCount());
+
+        // IS_USED_FALSE_JSON is a ship from Earth
+        mockMvc.perform(post("/rest/ships/")
+                .content(TestsHelper.IS_USED_FALSE_JSON)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        assertCount("/rest/ships/count?planet=eARth", earth + 1);
+    }
+
+    //test5
+    @Test
+    public void loadingCountersBypassesSecondLevelCache() throws Exception {
+        statistics.clear();
+        assertCount("/rest/ships/count?shipType=MILITARY",
+                testsHelper.getShipInfosByShipType(ShipType.MILITARY, testsHelper.getAllShips()).size());
+
+        assertEquals("Загрузка счетчиков не должна заполнять кэш кораблей.", 0L, statistics.getSecondLevelCachePutCount());
+        assertEquals("Загрузка счетчиков не должна заполнять кэш запросов.", 0L, statistics.getQueryCachePutCount());
+    }
+
+    private void assertCount(String url, int expected) throws Exception {
+        mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(content().string(String.valueOf(expected)));
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+
+    @Autowired
+    public void setShipCounters(ShipCounters shipCounters) {
+        this.shipCounters = shipCounters;
+    }
+
+    @Autowired
+    public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -1,5 +1,6 @@
 package com.space.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.space.config.MyWebAppInit;
 import com.space.config.WebConfig;
@@ -11,6 +12,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlConfig;
@@ -21,8 +23,12 @@ import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import javax.sql.DataSource;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
 import static org.springframework.test.util.AssertionErrors.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -33,6 +39,9 @@ public class GetShipTest {
 
     private WebApplicationContext context;
     private MockMvc mockMvc;
+    private JdbcTemplate jdbcTemplate;
+
+    private ObjectMapper mapper = new ObjectMapper();
 
     @Before
     public void setup() {
@@ -78,8 +87,43 @@ public class GetShipTest {
         assertTrue("Вернулся неправильный объект при запросе GET /rest/ships/{id}", actual.equals(expected));
     }
 
+    //test5
+    @Test
+    public void getShipKeepsStoredRatingTest() throws Exception {
+        // no speed, isUsed and prodDate give this rating, so it can only come from the column
+        jdbcTemplate.update("UPDATE ship SET rating = 99.99 WHERE id = 14");
+
+        JsonNode ship = mapper.readTree(mockMvc.perform(get("/rest/ships/14")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals("Рейтинг должен возвращаться из базы данных без пересчета.", 99.99, ship.get("rating").asDouble());
+
+        JsonNode ships = mapper.readTree(mockMvc.perform(get("/rest/ships?order=RATING&pageSize=40")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        JsonNode last = ships.get(ships.size() - 1);
+        assertEquals("Корабль с сохраненным рейтингом должен идти последним.", 14L, last.get("id").asLong());
+        assertEquals("Рейтинг в списке должен возвращаться из базы данных без пересчета.", 99.99, last.get("rating").asDouble());
+
+        // an update that does not touch speed, isUsed or prodDate leaves the rating alone
+        JsonNode renamed = mapper.readTree(mockMvc.perform(post("/rest/ships/14")
+                .content("{\"name\":\"Renamed\"}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals("Изменение имени не должно пересчитывать рейтинг.", 99.99, renamed.get("rating").asDouble());
+    }
+
     @Autowired
     public void setContext(WebApplicationContext context) {
         this.context = context;
     }
-}
\ No newline at end of file
+
+    @Autowired
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+}
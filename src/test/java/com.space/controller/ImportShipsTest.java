@@ -0,0 +1,175 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.service.importer.ImportFormat;
+import com.space.service.importer.ImportReport;
+import com.space.service.importer.ShipImporter;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@TestPropertySource(properties = {"ship.import.chunk-size=2", "ship.import.parser-threads=2", "ship.import.queue-capacity=1",
+        "ship.import.max-concurrent=1"})
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ImportShipsTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+    private ShipImporter shipImporter;
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void importNdjsonTest() throws Exception {
+        String ndjson =
+                ship("Alpha", 0.5) + "\n" +
+                ship("Beta", 2.0) + "\n" +
+                "\n" +
+                "{not json\n" +
+                ship("Gamma", 0.3) + "\n" +
+                ship("", 0.3) + "\n" +
+                ship("Delta", 0.7) + "\n";
+
+        JsonNode report = importFile("ndjson", ndjson);
+
+        assertEquals("Должны учитываться все непустые строки.", 6, report.get("lines").asInt());
+        assertEquals("Должны импортироваться только корректные корабли.", 3, report.get("imported").asInt());
+        assertEquals("Должны учитываться все ошибки.", 3, report.get("failed").asInt());
+
+        long[] errorLines = {2, 4, 6};
+        for (int i = 0; i < errorLines.length; i++) {
+            assertEquals("Ошибки должны указывать номер строки.", errorLines[i], report.get("errors").get(i).get("line").asLong());
+        }
+
+        assertEquals("Импортированные корабли должны сохраняться.", "43", count(""));
+        assertEquals("Импортированные корабли должны сохраняться.", "1", count("name=Delta"));
+    }
+
+    //test2
+    @Test
+    public void importCsvTest() throws Exception {
+        String csv = "name,planet,shipType,prodDate,isUsed,speed,crewSize\r\n" +
+                "\"Ship, the first\",Mars,MILITARY,32998274577071,true,0.8,14\r\n" +
+                "Second,Mars,MILITARY,32998274577071,false,0.8,100000\r\n" +
+                "Third,Mars,MILITARY,32998274577071,,0.8,14\r\n";
+
+        JsonNode report = importFile("csv", csv);
+
+        assertEquals("Должны импортироваться только корректные корабли.", 2, report.get("imported").asInt());
+        assertEquals("Номер строки должен учитывать заголовок.", 3, report.get("errors").get(0).get("line").asInt());
+        assertEquals("Запятая в кавычках не должна разделять значения.", "1", count("name=the first"));
+    }
+
+    //test3
+    @Test
+    public void importUnknownFormatTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/import?format=xml")
+                .content("")
+                .contentType(MediaType.TEXT_PLAIN))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test4
+    @Test
+    public void importBeyondMaxConcurrentTest() throws Exception {
+        PipedOutputStream lines = new PipedOutputStream();
+        CountDownLatch reading = new CountDownLatch(1);
+        InputStream in = new FilterInputStream(new PipedInputStream(lines)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                reading.countDown();
+                return super.read(b, off, len);
+            }
+        };
+
+        ExecutorService background = Executors.newSingleThreadExecutor();
+        try {
+            Future<ImportReport> running = background.submit(() -> shipImporter.importShips(in, ImportFormat.NDJSON));
+            assertTrue("Первый импорт должен начать чтение.", reading.await(10, TimeUnit.SECONDS));
+
+            mockMvc.perform(post("/rest/ships/import?format=ndjson")
+                    .content(ship("Beta", 0.5).getBytes(StandardCharsets.UTF_8))
+                    .contentType(MediaType.TEXT_PLAIN))
+                    .andExpect(status().isServiceUnavailable());
+
+            lines.write((ship("Alpha", 0.5) + "\n").getBytes(StandardCharsets.UTF_8));
+            lines.close();
+            assertEquals("Первый импорт должен завершиться.", 1L, running.get(10, TimeUnit.SECONDS).getImported());
+        } finally {
+            background.shutdownNow();
+        }
+
+        importFile("ndjson", ship("Gamma", 0.5));
+        assertEquals("После завершения импорта должен приниматься следующий.", "1", count("name=Gamma"));
+    }
+
+    private String ship(String name, double speed) {
+        return "{\"name\":\"" + name + "\",\"planet\":\"Earth\",\"shipType\":\"MERCHANT\",\"prodDate\":32998274577071," +
+                "\"isUsed\":false,\"speed\":" + speed + ",\"crewSize\":14}";
+    }
+
+    private JsonNode importFile(String format, String content) throws Exception {
+        return mapper.readTree(mockMvc.perform(post("/rest/ships/import?format=" + format)
+                .content(content.getBytes(StandardCharsets.UTF_8))
+                .contentType(MediaType.TEXT_PLAIN))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private String count(String filter) throws Exception {
+        return mockMvc.perform(get("/rest/ships/count?" + filter))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+
+    @Autowired
+    public void setShipImporter(ShipImporter shipImporter) {
+        this.shipImporter = shipImporter;
+    }
+}
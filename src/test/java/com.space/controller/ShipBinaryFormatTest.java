@@ -0,0 +1,139 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ShipBinaryFormatTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void listInBinaryTest() throws Exception {
+        String url = "/rest/ships?pageSize=40&order=RATING";
+
+        String json = mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+
+        byte[] binary = mockMvc.perform(get(url).accept(WebConfig.SHIP_BIN))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WebConfig.SHIP_BIN))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals("Бинарный ответ должен содержать те же корабли.", mapper.readTree(json), smileMapper.readTree(binary));
+        assertTrue("Бинарный ответ должен быть компактнее JSON.", binary.length < json.getBytes().length);
+    }
+
+    //test2
+    @Test
+    public void defaultStaysJsonTest() throws Exception {
+        mockMvc.perform(get("/rest/ships").header(HttpHeaders.ACCEPT, "*/*"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    //test3
+    @Test
+    public void streamAndExportInBinaryTest() throws Exception {
+        JsonNode expected = mapper.readTree(mockMvc.perform(get("/rest/ships?pageSize=40"))
+                .andReturn().getResponse().getContentAsString());
+
+        byte[] stream = mockMvc.perform(get("/rest/ships?stream=true").accept(WebConfig.SHIP_BIN))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WebConfig.SHIP_BIN))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("Потоковый бинарный ответ должен содержать те же корабли.", expected, smileMapper.readTree(stream));
+
+        byte[] export = mockMvc.perform(get("/rest/ships/export").accept(WebConfig.SHIP_BIN))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WebConfig.SHIP_BIN))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<JsonNode> rows = new ArrayList<>();
+        try (MappingIterator<JsonNode> iterator = smileMapper.readerFor(JsonNode.class).readValues(export)) {
+            iterator.forEachRemaining(rows::add);
+        }
+        assertEquals("Бинарная выгрузка должна содержать все корабли.", expected.size(), rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals("Строка бинарной выгрузки должна совпадать с кораблем из списка.", expected.get(i), rows.get(i));
+        }
+    }
+
+    //test4
+    @Test
+    public void refusedOrMalformedAcceptStaysJsonTest() throws Exception {
+        for (String accept : new String[]{"x-ship-bin", WebConfig.SHIP_BIN_VALUE + ";q=0", WebConfig.SHIP_BIN_VALUE + ";q=0.5, application/json"}) {
+            mockMvc.perform(get("/rest/ships?stream=true").header(HttpHeaders.ACCEPT, accept))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+
+            mockMvc.perform(get("/rest/ships/export").header(HttpHeaders.ACCEPT, accept))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"));
+        }
+    }
+
+    //test5
+    @Test
+    public void varyAndBinaryContentTypeTest() throws Exception {
+        for (String url : new String[]{"/rest/ships", "/rest/ships?stream=true", "/rest/ships?cursor=", "/rest/ships/1"}) {
+            MockHttpServletResponse response = mockMvc.perform(get(url).accept(WebConfig.SHIP_BIN))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            assertTrue("Ответ должен зависеть от Accept: " + url, response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+        }
+
+        MockHttpServletResponse export = mockMvc.perform(get("/rest/ships/export").accept(WebConfig.SHIP_BIN))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertTrue("Выгрузка должна зависеть от Accept.", export.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+        assertEquals("У бинарной выгрузки не должно быть кодировки.", WebConfig.SHIP_BIN_VALUE, export.getContentType());
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+}
@@ -0,0 +1,124 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ShipFieldsTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void listFieldsTest() throws Exception {
+        String query = "/rest/ships?planet=ur&order=RATING&pageNumber=1&pageSize=4";
+        JsonNode full = mapper.readTree(mockMvc.perform(get(query))
+                .andReturn().getResponse().getContentAsString());
+        JsonNode sparse = mapper.readTree(mockMvc.perform(get(query + "&fields=rating,name,id,prodDate"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        assertEquals("Должна возвращаться та же страница.", full.size(), sparse.size());
+        for (int i = 0; i < full.size(); i++) {
+            List<String> keys = new ArrayList<>();
+            sparse.get(i).fieldNames().forEachRemaining(keys::add);
+            assertEquals("Должны возвращаться только запрошенные поля.",
+                    Arrays.asList("id", "name", "prodDate", "rating"), keys);
+            for (String key : keys) {
+                assertEquals("Поле должно совпадать с полем корабля.", full.get(i).get(key), sparse.get(i).get(key));
+            }
+        }
+    }
+
+    //test2
+    @Test
+    public void streamFieldsTest() throws Exception {
+        JsonNode full = mapper.readTree(mockMvc.perform(get("/rest/ships?pageSize=40"))
+                .andReturn().getResponse().getContentAsString());
+        JsonNode sparse = mapper.readTree(mockMvc.perform(get("/rest/ships?stream=true&fields=name,isUsed"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        assertEquals("Должны выгружаться все корабли.", 40, sparse.size());
+        for (int i = 0; i < sparse.size(); i++) {
+            assertEquals("Должны возвращаться только запрошенные поля.", 2, sparse.get(i).size());
+            assertEquals("Поле должно совпадать с полем корабля.", full.get(i).get("isUsed"), sparse.get(i).get("isUsed"));
+        }
+    }
+
+    //test3
+    @Test
+    public void exportFieldsTest() throws Exception {
+        String body = mockMvc.perform(get("/rest/ships/export?format=csv&fields=speed,id"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\r\n");
+        assertEquals("Первая строка должна содержать только запрошенные колонки.", "id,speed", lines[0]);
+        assertEquals("Должна выгружаться строка на каждый корабль.", 41, lines.length);
+        assertEquals("Строка должна содержать только запрошенные колонки.", 2, lines[1].split(",").length);
+    }
+
+    //test4
+    @Test
+    public void unknownFieldTest() throws Exception {
+        mockMvc.perform(get("/rest/ships?fields=id,version"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/rest/ships/export?format=ndjson&fields="))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test5
+    @Test
+    public void unlimitedPageFieldsTest() throws Exception {
+        JsonNode full = mapper.readTree(mockMvc.perform(get("/rest/ships?pageSize=0&order=SPEED"))
+                .andReturn().getResponse().getContentAsString());
+        JsonNode sparse = mapper.readTree(mockMvc.perform(get("/rest/ships?pageSize=0&order=SPEED&fields=id"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        assertEquals("pageSize=0 должен возвращать те же корабли, что и без fields.", full.size(), sparse.size());
+        for (int i = 0; i < full.size(); i++) {
+            assertEquals("Корабли должны идти в том же порядке.", full.get(i).get("id"), sparse.get(i).get("id"));
+        }
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+}
@@ -0,0 +1,143 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import com.space.service.cache.ShipResultCache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@TestPropertySource(properties = {"ship.result-cache.enabled=true", "hibernate.cache.statistics=true"})
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ShipResultCacheTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+    private ShipResultCache resultCache;
+    private Statistics statistics;
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        // test.sql has just rewritten the table behind the application's back
+        resultCache.invalidate();
+    }
+
+    //test1
+    @Test
+    public void repeatedPagesAndCountsComeFromCache() throws Exception {
+        List<ShipInfoTest> ships = testsHelper.getShipInfosByShipType(ShipType.MERCHANT, testsHelper.getAllShips());
+        readList("/rest/ships?shipType=MERCHANT&pageNumber=0&pageSize=3");
+        perform("/rest/ships/count?shipType=MERCHANT");
+
+        statistics.clear();
+        List<ShipInfoTest> firstPage = readList("/rest/ships?shipType=MERCHANT&pageNumber=0&pageSize=3");
+        perform("/rest/ships/count?shipType=MERCHANT").andExpect(content().string(String.valueOf(ships.size())));
+        List<ShipInfoTest> secondPage = readList("/rest/ships?shipType=MERCHANT&pageNumber=1&pageSize=3");
+
+        assertTrue("Страницы из кэша результатов не совпадают с ожидаемыми.",
+                firstPage.equals(testsHelper.getShipInfosByPage(0, 3, ships)) &&
+                        secondPage.equals(testsHelper.getShipInfosByPage(1, 3, ships)));
+        // the cached page only loads its ships and the count is cached; the new page searches its ids and loads its ships
+        assertEquals("Повторные страница и количество должны браться из кэша результатов.",
+                3L, statistics.getQueryExecutionCount());
+    }
+
+    //test2
+    @Test
+    public void writesOutdateCachedResults() throws Exception {
+        int total = testsHelper.getAllShips().size();
+        perform("/rest/ships/count").andExpect(content().string(String.valueOf(total)));
+
+        mockMvc.perform(post("/rest/ships/")
+                .content(TestsHelper.IS_USED_FALSE_JSON)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        perform("/rest/ships/count").andExpect(content().string(String.valueOf(total + 1)));
+
+        mockMvc.perform(delete("/rest/ships/1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        perform("/rest/ships/count").andExpect(content().string(String.valueOf(total)));
+
+        List<ShipInfoTest> actual = readList("/rest/ships?pageSize=100");
+        assertTrue("Удаленный корабль остался в кэше результатов.", actual.stream().noneMatch(ship -> ship.id == 1));
+    }
+
+    //test3
+    @Test
+    public void orderIsPartOfTheKey() throws Exception {
+        List<ShipInfoTest> byId = readList("/rest/ships?isUsed=true&pageSize=100");
+        List<ShipInfoTest> bySpeed = readList("/rest/ships?isUsed=true&order=SPEED&pageSize=100");
+
+        List<ShipInfoTest> used = testsHelper.getShipInfosByIsUsed(true, testsHelper.getAllShips());
+        assertTrue("Кэш результатов вернул неправильный порядок.",
+                byId.equals(used) && bySpeed.equals(testsHelper.getShipInfosByOrder(ShipOrder.SPEED, used)));
+    }
+
+    private ResultActions perform(String url) throws Exception {
+        return mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+    }
+
+    private List<ShipInfoTest> readList(String url) throws Exception {
+        String contentAsString = perform(url).andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, typeReference);
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+
+    @Autowired
+    public void setResultCache(ShipResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    @Autowired
+    public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
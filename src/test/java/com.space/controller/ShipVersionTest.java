@@ -0,0 +1,108 @@
+package com.space.controller;
+
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ShipVersionTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void updateWithCurrentETagTest() throws Exception {
+        String eTag = eTagOf(2);
+
+        String newETag = mockMvc.perform(post("/rest/ships/2")
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .content("{\"name\":\"First\"}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertTrue("После обновления ETag должен измениться.", !eTag.equals(newETag));
+        assertEquals("Ответ на обновление должен содержать актуальный ETag.", newETag, eTagOf(2));
+    }
+
+    //test2
+    @Test
+    public void updateWithStaleETagTest() throws Exception {
+        String eTag = eTagOf(2);
+
+        mockMvc.perform(post("/rest/ships/2")
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .content("{\"name\":\"First\"}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/rest/ships/2")
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .content("{\"name\":\"Second\"}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isPreconditionFailed());
+
+        String name = mockMvc.perform(get("/rest/ships?name=Second"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Обновление с устаревшим ETag не должно сохраняться.", "[]", name);
+    }
+
+    //test3
+    @Test
+    public void updateWithForeignETagTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/2")
+                .header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                .content("{\"name\":\"First\"}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(post("/rest/ships/2")
+                .header(HttpHeaders.IF_MATCH, "*")
+                .content("{\"name\":\"First\"}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+    }
+
+    private String eTagOf(long id) throws Exception {
+        String eTag = mockMvc.perform(get("/rest/ships/" + id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertTrue("Корабль должен возвращаться с ETag.", eTag != null);
+        return eTag;
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+}
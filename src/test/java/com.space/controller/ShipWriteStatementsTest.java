@@ -0,0 +1,90 @@
+package com.space.controller;
+
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@TestPropertySource(properties = "hibernate.cache.statistics=true")
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ShipWriteStatementsTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+    private Statistics statistics;
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        statistics.clear();
+    }
+
+    //test1
+    @Test
+    public void deleteIsOneStatement() throws Exception {
+        mockMvc.perform(delete("/rest/ships/2")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        assertEquals("Удаление должно выполняться одним запросом.", 1L, statistics.getPrepareStatementCount());
+    }
+
+    //test2
+    @Test
+    public void deleteOfMissingShipIsOneStatement() throws Exception {
+        mockMvc.perform(delete("/rest/ships/426")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isNotFound());
+
+        assertEquals("Удаление несуществующего корабля должно выполняться одним запросом.", 1L, statistics.getPrepareStatementCount());
+    }
+
+    //test3
+    @Test
+    public void updateReadsOnceAndWritesOnce() throws Exception {
+        mockMvc.perform(post("/rest/ships/2")
+                .content("{\"speed\":0.5}")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        assertEquals("Обновление должно читать корабль один раз.", 1L, statistics.getEntityLoadCount());
+        assertEquals("Обновление должно выполняться одним UPDATE.", 1L, statistics.getEntityUpdateCount());
+        assertEquals("Обновление должно выполняться двумя запросами.", 2L, statistics.getPrepareStatementCount());
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+
+    @Autowired
+    public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,98 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@TestPropertySource(properties = {"hibernate.cache.enabled=true", "hibernate.cache.statistics=true"})
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class StreamShipsTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+    private Statistics statistics;
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        statistics.clear();
+    }
+
+    //test1
+    @Test
+    public void streamEqualsListTest() throws Exception {
+        String query = "planet=ur&isUsed=true&order=SPEED&pageNumber=1&pageSize=4";
+
+        JsonNode expected = read("/rest/ships?" + query);
+        JsonNode actual = read("/rest/ships?stream=true&" + query);
+
+        assertEquals("Потоковый ответ должен совпадать с обычным.", expected, actual);
+    }
+
+    //test2
+    @Test
+    public void streamWithoutPageSizeTest() throws Exception {
+        JsonNode ships = read("/rest/ships?stream=true&order=RATING");
+
+        assertEquals("Без pageSize должны возвращаться все корабли.", 40, ships.size());
+        for (int i = 1; i < ships.size(); i++) {
+            assertEquals("Корабли должны идти в порядке сортировки.", true,
+                    ships.get(i - 1).get("rating").asDouble() <= ships.get(i).get("rating").asDouble());
+        }
+    }
+
+    //test3
+    @Test
+    public void streamBypassesCachesTest() throws Exception {
+        read("/rest/ships?stream=true");
+
+        assertEquals("Потоковый ответ не должен заполнять кэш запросов.", 0L, statistics.getQueryCachePutCount());
+        assertEquals("Потоковый ответ не должен заполнять кэш кораблей.", 0L, statistics.getSecondLevelCachePutCount());
+    }
+
+    private JsonNode read(String url) throws Exception {
+        return mapper.readTree(mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+
+    @Autowired
+    public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
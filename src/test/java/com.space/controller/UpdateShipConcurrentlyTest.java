@@ -0,0 +1,160 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.model.Ship;
+import com.space.service.ShipService;
+import com.space.service.index.ShipCounters;
+import com.space.service.index.ShipIndex;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@TestPropertySource(properties = {"ship.index.enabled=true", "ship.counters.enabled=true"})
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class UpdateShipConcurrentlyTest {
+
+    private static final int THREADS = 8;
+    private static final int UPDATES = 25;
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+    private ShipService shipService;
+    private ShipIndex shipIndex;
+    private ShipCounters shipCounters;
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        // test.sql has just rewritten the table behind the application's back
+        shipIndex.invalidate();
+        shipCounters.invalidate();
+    }
+
+    //test1
+    @Test
+    public void parallelUpdatesLeaveIndexAndCountersAtLastCommit() throws Exception {
+        // load both before the race, so every update is applied to them
+        read("/rest/ships/count?planet=Race");
+        read("/rest/ships?planet=Race");
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Void>> futures = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                futures.add(executor.submit(updatePlanet(thread)));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        String planet = mapper.readValue(read("/rest/ships/1"), ShipInfoTest.class).planet;
+
+        List<ShipInfoTest> found = mapper.readValue(read("/rest/ships?planet=Race&pageSize=100"), typeReference);
+        assertTrue("Индекс должен хранить последнюю сохраненную версию корабля.",
+                found.size() == 1 && found.get(0).id == 1 && planet.equals(found.get(0).planet));
+
+        assertEquals("Счетчики должны учитывать последнюю сохраненную версию корабля.", "1", read("/rest/ships/count?planet=" + planet));
+        assertEquals("Счетчики должны учитывать корабль один раз.", "1", read("/rest/ships/count?planet=Race"));
+    }
+
+    //test2
+    @Test
+    public void lateWriteOfOlderVersionIsIgnored() throws Exception {
+        read("/rest/ships/count?planet=Race");
+        read("/rest/ships?planet=Race");
+
+        // the ship as the first of two concurrent updates committed it
+        Ship first = shipService.updateShip(1, null, ship -> ship.setPlanet("Race00000"));
+        mockMvc.perform(post("/rest/ships/1")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"planet\":\"Race01000\"}"));
+
+        // its writes to the index and the counters arrive only after those of the second one
+        shipIndex.put(first);
+        shipCounters.put(first);
+
+        List<ShipInfoTest> found = mapper.readValue(read("/rest/ships?planet=Race&pageSize=100"), typeReference);
+        assertTrue("Индекс не должен заменять корабль более старой версией.",
+                found.size() == 1 && "Race01000".equals(found.get(0).planet));
+        assertEquals("Счетчики не должны заменять корабль более старой версией.", "1", read("/rest/ships/count?planet=Race01000"));
+        assertEquals("Счетчики не должны заменять корабль более старой версией.", "0", read("/rest/ships/count?planet=Race00000"));
+    }
+
+    // an update may lose against a concurrent one with 412; the race is about the ones that commit
+    private Callable<Void> updatePlanet(int thread) {
+        return () -> {
+            for (int i = 0; i < UPDATES; i++) {
+                mockMvc.perform(post("/rest/ships/1")
+                        .contentType(MediaType.APPLICATION_JSON_UTF8)
+                        .accept(MediaType.APPLICATION_JSON_UTF8)
+                        .content(String.format("{\"planet\":\"Race%02d%03d\"}", thread, i)));
+            }
+            return null;
+        };
+    }
+
+    private String read(String url) throws Exception {
+        return mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+
+    @Autowired
+    public void setShipService(ShipService shipService) {
+        this.shipService = shipService;
+    }
+
+    @Autowired
+    public void setShipIndex(ShipIndex shipIndex) {
+        this.shipIndex = shipIndex;
+    }
+
+    @Autowired
+    public void setShipCounters(ShipCounters shipCounters) {
+        this.shipCounters = shipCounters;
+    }
+}
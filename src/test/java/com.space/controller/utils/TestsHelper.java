@@ -216,7 +216,7 @@ public class TestsHelper {
     public List<ShipInfoTest> getShipInfosByName(String name, List<ShipInfoTest> ships) {
         List<ShipInfoTest> result = new ArrayList<>();
         for (ShipInfoTest ship : ships) {
-            if (ship.name.contains(name)) {
+            if (ship.name.toLowerCase().contains(name.toLowerCase())) {
                 result.add(ship);
             }
         }
@@ -226,7 +226,7 @@ public class TestsHelper {
     public List<ShipInfoTest> getShipInfosByPlanet(String planet, List<ShipInfoTest> ships) {
         List<ShipInfoTest> result = new ArrayList<>();
         for (ShipInfoTest ship : ships) {
-            if (ship.planet.contains(planet)) {
+            if (ship.planet.toLowerCase().contains(planet.toLowerCase())) {
                 result.add(ship);
             }
         }
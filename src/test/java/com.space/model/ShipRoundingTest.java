@@ -0,0 +1,66 @@
+package com.space.model;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+
+public class ShipRoundingTest {
+
+    //test1
+    @Test
+    public void roundMatchesBigDecimalForRandomValues() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            double value = random.nextDouble() * Math.pow(10, random.nextInt(12) - 6);
+            int digits = 1 + random.nextInt(6);
+
+            assertEquals("Округление " + value + " до " + digits + " знаков отличается от BigDecimal.",
+                    bigDecimalRound(value, digits), Ship.round(value, digits));
+        }
+    }
+
+    //test2
+    @Test
+    public void roundMatchesBigDecimalForTiesAndBoundaries() {
+        double[] values = {0.125, 0.135, 2.675, 1.005, 0.0125, 0.015, 0.025, 0.995, 0.1, 0.01, 0.99,
+                9.9995, 99.95, 1.0, 10.0, 24.535, 0.4445, 0.00005, 123456.5, -0.125, -2.675, 0.0, 5e-324};
+
+        for (double value : values) {
+            for (int digits = 1; digits <= 7; digits++) {
+                assertEquals("Округление " + value + " до " + digits + " знаков отличается от BigDecimal.",
+                        bigDecimalRound(value, digits), Ship.round(value, digits));
+            }
+        }
+    }
+
+    //test3
+    @Test
+    public void ratingMatchesFormulaForEveryYearAndSpeed() {
+        for (int year = Ship.ProdDate.MIN; year <= Ship.ProdDate.MAX; year++) {
+            LocalDate firstDay = LocalDate.of(year, 1, 1);
+            LocalDate lastDay = LocalDate.of(year, 12, 31);
+
+            for (int hundredths = 1; hundredths <= 99; hundredths++) {
+                double speed = hundredths / 100.0;
+                double expected = bigDecimalRound((80 * speed * Ship.USED) / (Ship.ProdDate.MAX - year + 1), 3);
+
+                Ship ship = new Ship("name", "planet", "MILITARY", firstDay, true, speed, 1);
+                assertEquals("Неправильный рейтинг для " + year + " года.", expected, ship.getRating());
+
+                ship.setProdDate(lastDay);
+                assertEquals("Неправильный рейтинг для конца " + year + " года.", expected, ship.getRating());
+            }
+        }
+    }
+
+    private static double bigDecimalRound(double value, int digits) {
+        return BigDecimal.valueOf(value).round(new MathContext(digits, RoundingMode.HALF_EVEN)).doubleValue();
+    }
+}